@@ -0,0 +1,74 @@
+package benchmark;
+
+import code.DatabaseManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import model.Costume;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import service.CostumeService;
+
+/**
+ * Reading and mapping the costume catalog. Runs on the embedded database
+ * profile (in-memory H2 in MySQL mode) instead of a MySQL server, so the
+ * numbers cover the service's own work (query, row mapping, cache and index
+ * rebuild) rather than network round trips.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Ddb.profile=embedded", "-Ddb.seed.users=0" })
+@State(Scope.Benchmark)
+public class CostumeServiceBenchmark {
+
+    @Param({ "100", "10000" })
+    public int costumes;
+
+    private CostumeService service;
+
+    @Setup
+    public void setUp() {
+        // Each parameter value runs in its own fork, so this is read before the database is created
+        System.setProperty("db.seed.costumes", String.valueOf(costumes));
+        service = CostumeService.getInstance();
+        service.getAllCostumes();
+    }
+
+    @TearDown
+    public void tearDown() {
+        DatabaseManager.getInstance().shutdown();
+    }
+
+    /**
+     * Full catalog load as done when the cache is cold: SELECT, map every row, rebuild cache and search index
+     */
+    @Benchmark
+    public List<Costume> getAllCostumesUncached() {
+        service.invalidateCatalogCache();
+        return service.getAllCostumes();
+    }
+
+    /**
+     * Catalog read served from the cache
+     */
+    @Benchmark
+    public List<Costume> getAllCostumesCached() {
+        return service.getAllCostumes();
+    }
+
+    @Benchmark
+    public Costume getCostumeById() {
+        return service.getCostumeById(costumes / 2);
+    }
+}
@@ -0,0 +1,56 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import util.AppLogger;
+
+/**
+ * Cost of a log call to the caller. Records go through the async writer, so
+ * this is the enqueue cost plus whatever back-pressure the writer applies.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+
+    private int sequence;
+
+    @TearDown
+    public void tearDown() {
+        AppLogger.shutdown();
+    }
+
+    @Benchmark
+    public void logInfoFormatted() {
+        AppLogger.logInfo("Costume %d reserved by %s", sequence++, "bench");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void logInfoContended() {
+        AppLogger.logInfo("Costume %d reserved by %s", 42, "bench");
+    }
+
+    @Benchmark
+    public void logDebugSupplier() {
+        AppLogger.logDebug(() -> "Cache state " + sequence);
+    }
+
+    @Benchmark
+    public void logUserAction() {
+        AppLogger.logUserAction("bench", "UPDATE", "Costume", "42", "Stock changed");
+    }
+}
@@ -0,0 +1,52 @@
+package benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import model.Costume;
+import model.Rental;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import util.AppConstants;
+
+/**
+ * Price and late fee arithmetic done for every rental and return
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelBenchmark {
+
+    private Costume costume;
+    private Rental lateRental;
+
+    @Setup
+    public void setUp() {
+        costume = new Costume("Naruto Uzumaki", "Naruto", Costume.Size.M, 5, new BigDecimal("75000"));
+        LocalDate rented = LocalDate.of(2024, 1, 1);
+        lateRental = new Rental(1, 1, "Budi", "Naruto Uzumaki", rented, rented.plusDays(3), 2, new BigDecimal("450000"));
+        lateRental.setActualReturnDate(rented.plusDays(7));
+    }
+
+    @Benchmark
+    public BigDecimal calculateRentalCost() {
+        return costume.calculateRentalCost(2, 3);
+    }
+
+    @Benchmark
+    public BigDecimal calculateLateFee() {
+        lateRental.calculateLateFee(AppConstants.Business.DAILY_LATE_FEE);
+        return lateRental.getTotalCost();
+    }
+}
@@ -0,0 +1,62 @@
+package benchmark;
+
+import code.PasswordSecurity;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Password hashing on the login path. The PBKDF2 numbers are what a login costs
+ * at the configured iteration count; the legacy SHA-256 ones are what it cost before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordBenchmark {
+
+    private static final String PASSWORD = "Admin123!";
+
+    private String salt;
+    private String storedHash;
+    private String legacyHash;
+
+    @Setup
+    public void setUp() {
+        salt = PasswordSecurity.generateSalt();
+        storedHash = PasswordSecurity.createHash(PASSWORD, salt);
+        legacyHash = PasswordSecurity.hashPassword(PASSWORD, salt);
+    }
+
+    @Benchmark
+    public String createHash() {
+        return PasswordSecurity.createHash(PASSWORD, salt);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return PasswordSecurity.verify(PASSWORD, storedHash, salt);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String hashPassword() {
+        return PasswordSecurity.hashPassword(PASSWORD, salt);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean verifyPassword() {
+        return PasswordSecurity.verifyPassword(PASSWORD, legacyHash, salt);
+    }
+}
@@ -0,0 +1,42 @@
+package benchmark;
+
+import code.InputValidator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Input sanitizing and validation run on every form submit
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidationBenchmark {
+
+    @Param({ "Naruto Uzumaki", "<script>alert('x')</script> & \"Sasuke\"" })
+    public String text;
+
+    @Param({ "admin@rentalcosplay.com", "not-an-email@" })
+    public String email;
+
+    @Benchmark
+    public String sanitizeInput() {
+        return InputValidator.sanitizeInput(text);
+    }
+
+    @Benchmark
+    public boolean isValidEmail() {
+        return InputValidator.isValidEmail(email);
+    }
+}
@@ -0,0 +1,500 @@
+package loadtest;
+
+import code.DatabaseManager;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import model.Costume;
+import model.Customer;
+import model.Rental;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import service.CostumeService;
+import service.CustomerService;
+import service.RentalService;
+import service.ReturnResult;
+import service.ReturnService;
+import service.UserService;
+import util.AppConstants;
+import util.AppLogger;
+
+/**
+ * Headless load driver for the service layer. N clients each run a closed
+ * loop, picking operations from a weighted mix (catalog browse, search, rent,
+ * return, customer create, login) and calling the services directly, as the
+ * screens do. Latencies after the warm-up are recorded per operation in
+ * HdrHistogram recorders and reported as throughput plus percentiles.
+ *
+ * Clients run on virtual threads when the JVM has them (Java 21+), otherwise
+ * on one platform thread each. Since clients wait for each reply before the
+ * next request, latencies are service times under the chosen concurrency;
+ * throughput is what that concurrency sustains.
+ *
+ *   ant loadtest -Dloadtest.args="--profile embedded --clients 50 --duration 60"
+ */
+public final class LoadTest {
+
+    private static final int MAX_TRACKED_RENTALS = 100_000;
+    private static final String[] SHIPPING = { "JNE", "J&T", "SiCepat", "Ambil Sendiri" };
+
+    private final Options options;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final ConcurrentLinkedQueue<Integer> openRentals = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger trackedRentals = new AtomicInteger();
+    private final AtomicInteger customerSequence = new AtomicInteger();
+    private List<Costume> catalog;
+    private List<String> customers;
+
+    private LoadTest(Options options) {
+        this.options = options;
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(Options.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        // Must be set before DatabaseManager reads its configuration
+        if (options.profile != null) {
+            System.setProperty("db.profile", options.profile);
+        }
+
+        int status = 0;
+        try {
+            new LoadTest(options).run();
+        } catch (SQLException e) {
+            System.err.println("Load test setup failed: " + e.getMessage());
+            status = 1;
+        } finally {
+            UserService.getInstance().flushLastLogins();
+            DatabaseManager.getInstance().shutdown();
+            AppLogger.shutdown();
+        }
+        // The services post change events to the EDT, which keeps the JVM alive
+        System.exit(status);
+    }
+
+    private void run() throws SQLException, InterruptedException {
+        prepare();
+
+        System.out.printf("Profile %s, %d clients, %ds warm-up + %ds measured, mix %s%n",
+            DatabaseManager.getInstance().getProfile(), options.clients, options.warmupSeconds,
+            options.durationSeconds, options.describeMix());
+
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+
+        ExecutorService clients = newClientExecutor(options.clients);
+        for (int i = 0; i < options.clients; i++) {
+            Random random = new Random(options.seed + i);
+            clients.execute(() -> runClient(random, measureFrom, end));
+        }
+        clients.shutdown();
+        if (!clients.awaitTermination(options.warmupSeconds + options.durationSeconds + 60L, TimeUnit.SECONDS)) {
+            System.err.println("Clients did not finish in time; reporting what was recorded");
+            clients.shutdownNow();
+        }
+
+        report(System.out);
+        if (options.hgrmDir != null) {
+            writeDistributions();
+        }
+    }
+
+    /**
+     * Read the ids the workload picks from: catalog, customer names and open rentals
+     */
+    private void prepare() throws SQLException {
+        if (!DatabaseManager.getInstance().testConnection()) {
+            throw new SQLException("Cannot connect to the database (profile " + DatabaseManager.getInstance().getProfile() + ")");
+        }
+        catalog = CostumeService.getInstance().getAllCostumes();
+        if (catalog.isEmpty()) {
+            throw new SQLException("The costume table is empty; seed it or use --profile embedded");
+        }
+
+        customers = new ArrayList<>();
+        for (Object name : loadColumn("SELECT NamaPelanggan FROM " + AppConstants.Database.TABLE_CUSTOMER +
+                                      " ORDER BY IDPelanggan LIMIT ?", 10_000)) {
+            customers.add((String) name);
+        }
+        if (customers.isEmpty()) {
+            customers.add("Load Test");
+        }
+
+        for (Object id : loadColumn("SELECT IDRent FROM " + AppConstants.Database.TABLE_RENTAL +
+                                    " ORDER BY IDRent LIMIT ?", MAX_TRACKED_RENTALS)) {
+            trackRental(((Number) id).intValue());
+        }
+    }
+
+    private void runClient(Random random, long measureFrom, long end) {
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            Operation operation = options.pick(random);
+            if (operation == Operation.RETURN && openRentals.isEmpty()) {
+                // Nothing left to return; keep the load going with a rental instead
+                operation = Operation.RENT;
+            }
+
+            boolean ok;
+            try {
+                ok = execute(operation, random);
+            } catch (RuntimeException e) {
+                ok = false;
+            }
+            long elapsed = System.nanoTime() - now;
+
+            if (now >= measureFrom) {
+                stats.get(operation).record(elapsed, ok);
+            }
+            if (options.thinkMillis > 0) {
+                try {
+                    Thread.sleep(options.thinkMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return false when the service rejected or failed the request
+     */
+    private boolean execute(Operation operation, Random random) {
+        switch (operation) {
+            case BROWSE:
+                return !CostumeService.getInstance().getAllCostumes().isEmpty();
+            case SEARCH:
+                return CostumeService.getInstance().searchCostumes(searchTerm(random)) != null;
+            case RENT:
+                return rent(random);
+            case RETURN:
+                return returnRental(random);
+            case CUSTOMER:
+                return createCustomer();
+            case LOGIN:
+                return UserService.getInstance().authenticate(options.loginUser, options.loginPassword) != null;
+            default:
+                throw new IllegalStateException("Unhandled operation " + operation);
+        }
+    }
+
+    private boolean rent(Random random) {
+        Costume costume = catalog.get(random.nextInt(catalog.size()));
+        int days = 1 + random.nextInt(7);
+        LocalDate today = LocalDate.now();
+        Rental rental = new Rental(0, costume.getCostumeId(), customers.get(random.nextInt(customers.size())),
+                                   costume.getCharacterName(), today, today.plusDays(days), 1,
+                                   costume.getPrice().multiply(BigDecimal.valueOf(days)));
+        rental.setShippingMethod(SHIPPING[random.nextInt(SHIPPING.length)]);
+        rental.setTrackingNumber("LT" + random.nextInt(1_000_000));
+
+        int rentalId = RentalService.getInstance().createRental(rental);
+        if (rentalId < 0) {
+            // Usually out of stock; returns put it back
+            return false;
+        }
+        trackRental(rentalId);
+        return true;
+    }
+
+    private boolean returnRental(Random random) {
+        Integer rentalId = openRentals.poll();
+        if (rentalId == null) {
+            return false;
+        }
+        trackedRentals.decrementAndGet();
+        ReturnResult result = ReturnService.getInstance().processReturn(rentalId, ReturnService.NO_FINE,
+            SHIPPING[random.nextInt(SHIPPING.length)], "LTR" + rentalId);
+        return result != null;
+    }
+
+    private boolean createCustomer() {
+        int n = customerSequence.incrementAndGet();
+        Customer customer = new Customer("Load Test " + n, "Jl. Uji Beban No. " + n, "0812" + (10_000_000 + n), "@loadtest" + n);
+        return CustomerService.getInstance().createCustomer(customer) > 0;
+    }
+
+    /**
+     * A prefix of a catalog name, as a user typing into the search box would send
+     */
+    private String searchTerm(Random random) {
+        String name = catalog.get(random.nextInt(catalog.size())).getCharacterName();
+        return name.substring(0, Math.min(name.length(), 3 + random.nextInt(6)));
+    }
+
+    private void trackRental(int rentalId) {
+        if (trackedRentals.incrementAndGet() <= MAX_TRACKED_RENTALS) {
+            openRentals.add(rentalId);
+        } else {
+            trackedRentals.decrementAndGet();
+        }
+    }
+
+    private static List<Object> loadColumn(String query, int limit) throws SQLException {
+        List<Object> values = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseManager.getInstance().getConnection();
+            pstmt = conn.prepareStatement(query);
+            pstmt.setInt(1, limit);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                values.add(rs.getObject(1));
+            }
+        } finally {
+            DatabaseManager.closeResources(conn, pstmt, rs);
+        }
+        return values;
+    }
+
+    private static ExecutorService newClientExecutor(int clients) {
+        try {
+            // Virtual threads are final from Java 21; the project targets 19, so look the factory up at run time
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            System.out.println("Virtual threads not available on this JVM; using " + clients + " platform threads");
+            return Executors.newFixedThreadPool(clients);
+        }
+    }
+
+    private void report(PrintStream out) {
+        double seconds = options.durationSeconds;
+        Histogram total = new Histogram(3);
+
+        out.println();
+        out.printf("%-10s %9s %7s %10s %9s %9s %9s %9s %9s%n",
+                   "operation", "count", "failed", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            OperationStats stat = stats.get(operation);
+            Histogram histogram = stat.histogram();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            total.add(histogram);
+            printRow(out, operation.getKey(), histogram, stat.failures.sum(), seconds);
+        }
+        long failures = stats.values().stream().mapToLong(stat -> stat.failures.sum()).sum();
+        printRow(out, "total", total, failures, seconds);
+        out.println();
+        out.println("Pool: " + DatabaseManager.getInstance().getPoolStatus());
+    }
+
+    private static void printRow(PrintStream out, String name, Histogram histogram, long failures, double seconds) {
+        out.printf("%-10s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                   name, histogram.getTotalCount(), failures, histogram.getTotalCount() / seconds,
+                   millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                   millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                   millis(histogram.getMaxValue()));
+    }
+
+    /**
+     * Full percentile distribution per operation in .hgrm format, for plotting or comparing runs
+     */
+    private void writeDistributions() {
+        File dir = new File(options.hgrmDir);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            System.err.println("Cannot create " + dir);
+            return;
+        }
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = stats.get(operation).histogram();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            File file = new File(dir, operation.getKey() + ".hgrm");
+            try (PrintStream out = new PrintStream(file, "UTF-8")) {
+                histogram.outputPercentileDistribution(out, 1_000_000.0);
+            } catch (FileNotFoundException | java.io.UnsupportedEncodingException e) {
+                System.err.println("Cannot write " + file + ": " + e.getMessage());
+            }
+        }
+        System.out.println("Latency distributions (ms) written to " + dir);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Latencies and failures of one operation; safe to record from many threads
+     */
+    private static final class OperationStats {
+        private final Recorder recorder = new Recorder(3);
+        private final LongAdder failures = new LongAdder();
+        private Histogram histogram;
+
+        void record(long nanos, boolean ok) {
+            recorder.recordValue(nanos);
+            if (!ok) {
+                failures.increment();
+            }
+        }
+
+        /**
+         * Everything recorded so far; call once the clients have stopped
+         */
+        synchronized Histogram histogram() {
+            if (histogram == null) {
+                histogram = recorder.getIntervalHistogram();
+            }
+            return histogram;
+        }
+    }
+
+    /**
+     * Command line settings
+     */
+    private static final class Options {
+        static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: LoadTest [options]",
+            "  --profile NAME         database profile (embedded, mysql); default from database.properties",
+            "  --clients N            concurrent clients (default 50)",
+            "  --duration SECONDS     measured time (default 60)",
+            "  --warmup SECONDS       unmeasured time before it (default 10)",
+            "  --mix op=w,...         weights for browse, search, rent, return, customer, login",
+            "  --think-ms N           pause between a client's requests (default 0)",
+            "  --login-user NAME      account for the login operation (default user1)",
+            "  --login-password PASS  its password (default Cosplay123!, the embedded seed password)",
+            "  --seed N               random seed for the clients (default 1)",
+            "  --hgrm-dir DIR         also write each operation's latency distribution to DIR");
+
+        String profile;
+        int clients = 50;
+        int durationSeconds = 60;
+        int warmupSeconds = 10;
+        int thinkMillis;
+        String loginUser = "user1";
+        String loginPassword = "Cosplay123!";
+        long seed = 1;
+        String hgrmDir;
+        final Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        private Operation[] wheel;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (Operation operation : Operation.values()) {
+                options.weights.put(operation, operation.getDefaultWeight());
+            }
+
+            for (int i = 0; i < args.length; i++) {
+                String name = args[i];
+                if (name.equals("--help")) {
+                    throw new IllegalArgumentException("Service layer load test");
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + name);
+                }
+                String value = args[++i];
+                switch (name) {
+                    case "--profile": options.profile = value; break;
+                    case "--clients": options.clients = positive(name, value); break;
+                    case "--duration": options.durationSeconds = positive(name, value); break;
+                    case "--warmup": options.warmupSeconds = nonNegative(name, value); break;
+                    case "--think-ms": options.thinkMillis = nonNegative(name, value); break;
+                    case "--login-user": options.loginUser = value; break;
+                    case "--login-password": options.loginPassword = value; break;
+                    case "--seed": options.seed = Long.parseLong(value); break;
+                    case "--hgrm-dir": options.hgrmDir = value; break;
+                    case "--mix": options.parseMix(value); break;
+                    default: throw new IllegalArgumentException("Unknown option " + name);
+                }
+            }
+            options.buildWheel();
+            return options;
+        }
+
+        /**
+         * Operations not named in the mix get weight 0
+         */
+        private void parseMix(String mix) {
+            weights.replaceAll((operation, weight) -> 0);
+            for (String part : mix.split(",")) {
+                String[] pair = part.split("=");
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("Mix entries look like rent=15, got " + part);
+                }
+                weights.put(Operation.fromKey(pair[0]), nonNegative("--mix", pair[1]));
+            }
+        }
+
+        private void buildWheel() {
+            List<Operation> slots = new ArrayList<>();
+            weights.forEach((operation, weight) -> {
+                for (int i = 0; i < weight; i++) {
+                    slots.add(operation);
+                }
+            });
+            if (slots.isEmpty()) {
+                throw new IllegalArgumentException("The mix has no operation with a positive weight");
+            }
+            wheel = slots.toArray(new Operation[0]);
+        }
+
+        Operation pick(Random random) {
+            return wheel[random.nextInt(wheel.length)];
+        }
+
+        String describeMix() {
+            StringBuilder sb = new StringBuilder();
+            weights.forEach((operation, weight) -> {
+                if (weight > 0) {
+                    sb.append(sb.length() == 0 ? "" : ",").append(operation.getKey()).append('=').append(weight);
+                }
+            });
+            return sb.toString();
+        }
+
+        private static int positive(String name, String value) {
+            int parsed = nonNegative(name, value);
+            if (parsed == 0) {
+                throw new IllegalArgumentException(name + " must be positive");
+            }
+            return parsed;
+        }
+
+        private static int nonNegative(String name, String value) {
+            try {
+                int parsed = Integer.parseInt(value.trim());
+                if (parsed < 0) {
+                    throw new IllegalArgumentException(name + " must not be negative");
+                }
+                return parsed;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(name + " expects a number, got " + value);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package loadtest;
+
+/**
+ * Operations of the load test mix and their default share of requests
+ */
+enum Operation {
+    BROWSE("browse", 35),
+    SEARCH("search", 25),
+    RENT("rent", 15),
+    RETURN("return", 15),
+    CUSTOMER("customer", 5),
+    LOGIN("login", 5);
+
+    private final String key;
+    private final int defaultWeight;
+
+    Operation(String key, int defaultWeight) {
+        this.key = key;
+        this.defaultWeight = defaultWeight;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    int getDefaultWeight() {
+        return defaultWeight;
+    }
+
+    static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equalsIgnoreCase(key.trim())) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + key);
+    }
+}
@@ -9,23 +9,25 @@ import java.sql.Connection;
 import java.sql.Statement;
 import java.sql.ResultSet;
 import java.sql.DriverManager;
-import java.sql.SQLException;
-import java.sql.PreparedStatement;
 import javax.swing.JOptionPane;
 import javax.swing.table.DefaultTableModel;
-import net.proteanit.sql.DbUtils;
 import java.math.BigDecimal;
-import model.Costume;
+import java.util.ArrayList;
+import java.util.List;
 import service.CostumeService;
+import service.DomainEvent;
 import util.AppConstants;
 import util.AppLogger;
+import util.BackgroundLoader;
 import util.CurrentUserSession;
+import util.EventBus;
+import util.UIUtils;
 
 /**
  *
  * @author ASUS
  */
-public class Costume extends javax.swing.JFrame {
+public class Costume extends javax.swing.JFrame implements Navigator.Refreshable {
 
     /**
      * Creates new form Costume
@@ -38,6 +40,8 @@ public class Costume extends javax.swing.JFrame {
         initComponents();
         TampilkanKostum();
         IDKostumtxt.setEditable(false);
+        subscriptions.add(EventBus.getInstance().subscribe(DomainEvent.CostumeChanged.class, this::kostumBerubah));
+        subscriptions.add(EventBus.getInstance().subscribe(DomainEvent.CostumesImported.class, event -> muatUlangKostum()));
     }
 
     /**
@@ -48,25 +52,67 @@ public class Costume extends javax.swing.JFrame {
     Connection Con = null;
     Statement  St = null;
     ResultSet Rs = null;
+    private final List<EventBus.Subscription> subscriptions = new ArrayList<>();
+    // A change arrived while hidden that could not be applied row by row
+    private boolean kostumBasi;
     
-    private void TampilkanKostum(){
-    Connection conn = null;
-    PreparedStatement pstmt = null;
-    ResultSet rs = null;
+    /**
+     * Screen shown again by the Navigator. Changes from other screens were applied as they
+     * happened; only reload if one of them could not be.
+     */
+    @Override
+    public void onShown() {
+        if (kostumBasi) {
+            kostumBasi = false;
+            TampilkanKostum();
+        }
+    }
     
-    try{
-        conn = DatabaseManager.getInstance().getConnection();
-        String query = "SELECT IDKostum as 'ID Kostum', NamaKarakter as 'Nama Karakter', " +
-                      "AsalKarakter as 'Asal Karakter', Ukuran, Stok, Harga FROM Kostum";
-        pstmt = conn.prepareStatement(query);
-        rs = pstmt.executeQuery();
-        Kostumtb.setModel(DbUtils.resultSetToTableModel(rs));
-    }catch(SQLException e){
-        JOptionPane.showMessageDialog(this, "Terjadi kesalahan saat memuat data kostum.");
-        System.err.println("Database error in TampilkanKostum: " + e.getMessage());
-    }finally{
-        DatabaseManager.closeResources(conn, pstmt, rs);
-    }}
+    /**
+     * Reload now if the screen is visible, otherwise when it is shown next
+     */
+    private void muatUlangKostum(){
+        if (isShowing()) {
+            TampilkanKostum();
+        } else {
+            kostumBasi = true;
+        }
+    }
+    
+    private void TampilkanKostum(){
+        // Served from the catalog cache; only goes to the database when the cache is stale
+        BackgroundLoader.getInstance().load(this, "kostum",
+            () -> UIUtils.createCostumeTableModel(CostumeService.getInstance().getAllCostumes()),
+            Kostumtb::setModel);
+    }
+
+    /**
+     * Apply a saved, deleted or restocked costume to its row instead of reloading the table
+     */
+    private void kostumBerubah(DomainEvent.CostumeChanged event){
+        if (BackgroundLoader.getInstance().isLoading(this) || !(Kostumtb.getModel() instanceof DefaultTableModel)) {
+            // A load in flight may have read the catalog before this change; read it again
+            muatUlangKostum();
+            return;
+        }
+        DefaultTableModel kostumModel = (DefaultTableModel) Kostumtb.getModel();
+        if (event.getKind() == DomainEvent.CostumeChanged.Kind.DELETED) {
+            UIUtils.removeRowById(kostumModel, event.getCostumeId());
+        } else if (event.getCostume() != null) {
+            UIUtils.putCostumeRow(kostumModel, event.getCostume());
+        } else if (!UIUtils.setCostumeStock(kostumModel, event.getCostumeId(), event.getStock())) {
+            muatUlangKostum();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        // Drop results of loads that would otherwise land on a closed screen
+        BackgroundLoader.getInstance().cancelAll(this);
+        subscriptions.forEach(EventBus.Subscription::cancel);
+        subscriptions.clear();
+        super.dispose();
+    }
     
     @SuppressWarnings("unchecked")
     // <editor-fold defaultstate="collapsed" desc="Generated Code">//GEN-BEGIN:initComponents
@@ -499,7 +545,6 @@ public class Costume extends javax.swing.JFrame {
             
             if (newCostume != null) {
                 JOptionPane.showMessageDialog(this, AppConstants.SuccessMessages.DATA_SAVED);
-                TampilkanKostum();
                 clear();
                 
                 // Log user action
@@ -513,8 +558,7 @@ public class Costume extends javax.swing.JFrame {
             
         } catch (CurrentUserSession.SessionExpiredException e) {
             JOptionPane.showMessageDialog(this, "Sesi telah berakhir. Silakan login kembali.");
-            new Login().setVisible(true);
-            this.dispose();
+            Navigator.getInstance().logout(this);
         } catch (Exception e) {
             AppLogger.logError("Error in SavebtnActionPerformed", e);
             JOptionPane.showMessageDialog(this, "Terjadi kesalahan saat menyimpan data kostum.");
@@ -540,30 +584,17 @@ public class Costume extends javax.swing.JFrame {
             return;
         }
         
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        
         try{
-            conn = DatabaseManager.getInstance().getConnection();
-            String query = "DELETE FROM kostum WHERE IDKostum = ?";
-            pstmt = conn.prepareStatement(query);
-            pstmt.setInt(1, Integer.parseInt(IDKostumtxt.getText().trim()));
+            int costumeId = Integer.parseInt(IDKostumtxt.getText().trim());
             
-            int rowsAffected = pstmt.executeUpdate();
-            if (rowsAffected > 0) {
+            if (CostumeService.getInstance().deleteCostume(costumeId)) {
                 JOptionPane.showMessageDialog(this, "Kostum Berhasil Dihapus");
-                TampilkanKostum();
                 clear();
             } else {
-                JOptionPane.showMessageDialog(this, "Kostum tidak ditemukan atau sudah terhapus");
+                JOptionPane.showMessageDialog(this, "Kostum tidak dapat dihapus. Mungkin kostum sedang dirental atau sudah terhapus.");
             }
-        } catch (SQLException e){
-            JOptionPane.showMessageDialog(this, "Terjadi kesalahan saat menghapus kostum. Mungkin kostum sedang digunakan.");
-            System.err.println("Database error in Delete: " + e.getMessage());
         } catch (NumberFormatException e) {
             JOptionPane.showMessageDialog(this, "ID Kostum tidak valid");
-        } finally {
-            DatabaseManager.closeResources(conn, pstmt, null);
         }//GEN-LAST:event_DelettebtnActionPerformed
     }
     
@@ -593,68 +624,53 @@ public class Costume extends javax.swing.JFrame {
         }
         
         // Validate numeric inputs
+        int costumeId;
+        int stock;
+        BigDecimal price;
         try {
-            Integer.parseInt(Stoktxt.getText().trim());
-            Integer.parseInt(Hargatxt.getText().trim());
-            Integer.parseInt(IDKostumtxt.getText().trim());
+            costumeId = Integer.parseInt(IDKostumtxt.getText().trim());
+            stock = Integer.parseInt(Stoktxt.getText().trim());
+            price = new BigDecimal(Hargatxt.getText().trim());
         } catch (NumberFormatException e) {
             JOptionPane.showMessageDialog(this, "ID, Stok dan Harga harus berupa angka yang valid");
             return;
         }
         
-        Connection conn = null;
-        PreparedStatement pstmt = null;
+        boolean updated = CostumeService.getInstance().updateCostume(
+            costumeId,
+            NmKaraktertxt.getText().trim(),
+            AslKaraktertxt.getText().trim(),
+            Ukurantxt.getSelectedItem().toString(),
+            stock,
+            price
+        );
         
-        try{
-            conn = DatabaseManager.getInstance().getConnection();
-            String query = "UPDATE Kostum SET NamaKarakter=?, AsalKarakter=?, Ukuran=?, Stok=?, Harga=? WHERE IDKostum=?";
-            pstmt = conn.prepareStatement(query);
-            
-            pstmt.setString(1, NmKaraktertxt.getText().trim());
-            pstmt.setString(2, AslKaraktertxt.getText().trim());
-            pstmt.setString(3, Ukurantxt.getSelectedItem().toString());
-            pstmt.setInt(4, Integer.parseInt(Stoktxt.getText().trim()));
-            pstmt.setInt(5, Integer.parseInt(Hargatxt.getText().trim()));
-            pstmt.setInt(6, Integer.parseInt(IDKostumtxt.getText().trim()));
-            
-            int rowsAffected = pstmt.executeUpdate();
-            if (rowsAffected > 0) {
-                JOptionPane.showMessageDialog(this, "Kostum Berhasil Diubah");
-                TampilkanKostum();
-                clear();
-            } else {
-                JOptionPane.showMessageDialog(this, "Kostum tidak ditemukan");
-            }
-        } catch (SQLException e){
-            JOptionPane.showMessageDialog(this, "Terjadi kesalahan saat mengubah data kostum.");
-            System.err.println("Database error in Edit: " + e.getMessage());
-        } finally {
-            DatabaseManager.closeResources(conn, pstmt, null);
+        if (updated) {
+            JOptionPane.showMessageDialog(this, "Kostum Berhasil Diubah");
+            clear();
+        } else {
+            JOptionPane.showMessageDialog(this, "Kostum tidak ditemukan atau data tidak valid");
         }
     }//GEN-LAST:event_EditbtnActionPerformed
 
     private void jLabel8MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jLabel8MouseClicked
         // TODO add your handling code here:
-        new Pelanggan().setVisible(true);
-        this.dispose();
+        Navigator.getInstance().show(this, Pelanggan.class, Pelanggan::new);
     }//GEN-LAST:event_jLabel8MouseClicked
 
     private void jLabel9MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jLabel9MouseClicked
         // TODO add your handling code here:
-        new SewaKostum().setVisible(true);
-        this.dispose();
+        Navigator.getInstance().show(this, SewaKostum.class, SewaKostum::new);
     }//GEN-LAST:event_jLabel9MouseClicked
 
     private void jLabel10MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jLabel10MouseClicked
         // TODO add your handling code here:
-        new Pengembalian().setVisible(true);
-        this.dispose();
+        Navigator.getInstance().show(this, Pengembalian.class, Pengembalian::new);
     }//GEN-LAST:event_jLabel10MouseClicked
 
     private void jLabel11MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jLabel11MouseClicked
         // TODO add your handling code here:
-        new Login().setVisible(true);
-        this.dispose();
+        Navigator.getInstance().logout(this);
     }//GEN-LAST:event_jLabel11MouseClicked
 
     private void PrintbtnActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_PrintbtnActionPerformed
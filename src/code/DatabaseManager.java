@@ -1,11 +1,12 @@
 package code;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
 import java.io.InputStream;
 import java.io.IOException;
+import util.AppConstants;
+import util.AppLogger;
 
 /**
  * Database Manager Class for secure database connections
@@ -15,11 +16,25 @@ public class DatabaseManager {
     private static final String DEFAULT_URL = "jdbc:mysql://localhost/rental_cosplay";
     private static final String DEFAULT_USER = "root";
     private static final String DEFAULT_PASSWORD = "";
+    private static final String DRIVER_CLASS = "com.mysql.cj.jdbc.Driver";
+    private static final String DRIVER_PROPERTY_PREFIX = "db.driver.";
+    private static final String DEFAULT_PROFILE = "mysql";
+    
+    /**
+     * SQL flavour of the configured database, for the few statements that differ
+     */
+    public enum Dialect { MYSQL, H2 }
     
     private static DatabaseManager instance;
     private String url;
     private String username;
     private String password;
+    private String driverClass;
+    private String profile;
+    private Dialect dialect;
+    private final Properties props = new Properties();
+    
+    private volatile ConnectionPool pool;
     
     private DatabaseManager() {
         loadDatabaseConfig();
@@ -33,40 +48,160 @@ public class DatabaseManager {
     }
     
     private void loadDatabaseConfig() {
-        Properties props = new Properties();
         try (InputStream input = getClass().getResourceAsStream("/config/database.properties")) {
             if (input != null) {
                 props.load(input);
-                this.url = props.getProperty("db.url", DEFAULT_URL);
-                this.username = props.getProperty("db.username", DEFAULT_USER);
-                this.password = props.getProperty("db.password", DEFAULT_PASSWORD);
-            } else {
-                // Fallback to default values
-                this.url = DEFAULT_URL;
-                this.username = DEFAULT_USER;
-                this.password = DEFAULT_PASSWORD;
             }
         } catch (IOException e) {
             System.err.println("Error loading database configuration: " + e.getMessage());
             // Use default values
-            this.url = DEFAULT_URL;
-            this.username = DEFAULT_USER;
-            this.password = DEFAULT_PASSWORD;
         }
+        
+        // -Ddb.* system properties override the file, e.g. to point a benchmark run at an embedded database
+        Properties overrides = new Properties();
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("db.")) {
+                overrides.setProperty(key, System.getProperty(key));
+            }
+        }
+        
+        // Keys of the active profile (e.g. embedded.db.url) replace the plain db.* keys
+        this.profile = overrides.getProperty("db.profile", props.getProperty("db.profile", DEFAULT_PROFILE)).trim();
+        String prefix = profile + ".";
+        for (String key : props.stringPropertyNames()) {
+            if (key.startsWith(prefix + "db.")) {
+                props.setProperty(key.substring(prefix.length()), props.getProperty(key));
+            }
+        }
+        props.putAll(overrides);
+        
+        this.url = props.getProperty("db.url", DEFAULT_URL);
+        this.username = props.getProperty("db.username", DEFAULT_USER);
+        this.password = props.getProperty("db.password", DEFAULT_PASSWORD);
+        this.driverClass = props.getProperty("db.driverClass", DRIVER_CLASS);
+        this.dialect = url.startsWith("jdbc:h2:") ? Dialect.H2 : Dialect.MYSQL;
+    }
+    
+    /**
+     * Name of the active configuration profile (db.profile), e.g. mysql or embedded
+     */
+    public String getProfile() {
+        return profile;
+    }
+    
+    public Dialect getDialect() {
+        return dialect;
     }
     
     /**
-     * Get a database connection
+     * Get a database connection from the pool.
+     * Closing the returned connection gives it back to the pool.
      * @return Connection object
      * @throws SQLException if connection fails
      */
     public Connection getConnection() throws SQLException {
+        ConnectionPool current = pool;
+        if (current == null) {
+            current = initPool();
+        }
+        return current.borrow();
+    }
+    
+    private synchronized ConnectionPool initPool() throws SQLException {
+        if (pool == null) {
+            try {
+                // Ensure the JDBC driver is loaded
+                Class.forName(driverClass);
+            } catch (ClassNotFoundException e) {
+                throw new SQLException("JDBC Driver not found: " + driverClass, e);
+            }
+            
+            Properties connectionProperties = new Properties();
+            connectionProperties.setProperty("user", username);
+            connectionProperties.setProperty("password", password);
+            // Pass driver tuning (e.g. useServerPrepStmts) straight through to the driver;
+            // an empty value (e.g. from a -D override) leaves the setting out
+            for (String key : props.stringPropertyNames()) {
+                String value = props.getProperty(key);
+                if (key.startsWith(DRIVER_PROPERTY_PREFIX) && !value.isEmpty()) {
+                    connectionProperties.setProperty(key.substring(DRIVER_PROPERTY_PREFIX.length()), value);
+                }
+            }
+            
+            int minSize = intProperty("db.pool.minSize", AppConstants.Database.MIN_POOL_SIZE);
+            int maxSize = intProperty("db.pool.maxSize", AppConstants.Database.MAX_POOL_SIZE);
+            int timeout = intProperty("db.pool.connectionTimeout", AppConstants.Database.CONNECTION_TIMEOUT);
+            int idleTimeout = intProperty("db.pool.idleTimeout", AppConstants.Database.IDLE_TIMEOUT);
+            int statementCacheSize = intProperty("db.statementCache.size", AppConstants.Database.STATEMENT_CACHE_SIZE);
+            
+            ConnectionPool created = new ConnectionPool(url, connectionProperties, minSize, maxSize, 
+                                                        timeout, idleTimeout, statementCacheSize);
+            
+            // Embedded databases start empty: create the schema and seed data before anyone reads
+            String schema = props.getProperty("db.init.schema", "").trim();
+            if (!schema.isEmpty()) {
+                try {
+                    EmbeddedDatabase.initialize(created, schema, props);
+                } catch (SQLException e) {
+                    created.close();
+                    throw e;
+                }
+            }
+            pool = created;
+            
+            // Open the minimum number of connections without holding up the first caller
+            Thread warmUp = new Thread(created::warmUp, "db-pool-warmup");
+            warmUp.setDaemon(true);
+            warmUp.start();
+            
+            AppLogger.logDatabaseConnection(true, 
+                String.format("Connection pool created (profile=%s, min=%d, max=%d)", profile, minSize, maxSize));
+        }
+        return pool;
+    }
+    
+    private int intProperty(String key, int defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
         try {
-            // Ensure MySQL driver is loaded
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            return DriverManager.getConnection(url, username, password);
-        } catch (ClassNotFoundException e) {
-            throw new SQLException("MySQL JDBC Driver not found", e);
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+    
+    /**
+     * Get a short description of the pool state for diagnostics
+     */
+    public String getPoolStatus() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            return "Pool not initialised";
+        }
+        return String.format("active=%d, idle=%d, total=%d", 
+                             current.getActiveConnections(), 
+                             current.getIdleConnections(), 
+                             current.getTotalConnections());
+    }
+    
+    /**
+     * Get prepared statement cache counters for diagnostics
+     */
+    public String getStatementCacheStatus() {
+        ConnectionPool current = pool;
+        return current == null ? "Pool not initialised" : current.getStatementStats().toString();
+    }
+    
+    /**
+     * Close all pooled connections. Call on application exit.
+     */
+    public synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
         }
     }
     
@@ -0,0 +1,274 @@
+package code;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Properties;
+import java.util.Random;
+import util.AppConstants;
+import util.AppLogger;
+
+/**
+ * Schema and synthetic data for a database that starts empty (the embedded profile).
+ * The schema script is idempotent; data is only generated while the costume table
+ * is empty, so a file database keeps its contents across restarts. The same
+ * db.seed.random value produces the same rows, with dates relative to today.
+ */
+final class EmbeddedDatabase {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String[] SIZES = { "S", "M", "L", "XL", "ALL SIZE" };
+    private static final String[] ORIGINS = {
+        "Naruto", "One Piece", "Genshin Impact", "Demon Slayer", "Jujutsu Kaisen",
+        "Attack on Titan", "Spy x Family", "Honkai Star Rail", "Blue Lock", "Chainsaw Man"
+    };
+    private static final String[] FIRST_NAMES = { "Budi", "Siti", "Andi", "Dewi", "Rizky", "Putri", "Agus", "Ayu", "Fajar", "Nadia" };
+    private static final String[] LAST_NAMES = { "Santoso", "Wijaya", "Pratama", "Lestari", "Hidayat", "Saputra", "Kusuma", "Rahmawati" };
+    private static final String[] CITIES = { "Jakarta", "Bandung", "Surabaya", "Yogyakarta", "Semarang", "Malang", "Medan", "Denpasar" };
+    private static final String[] SHIPPING = { "JNE", "J&T", "SiCepat", "AnterAja", "Ambil Sendiri" };
+    private static final String[] FINE_PAYMENT = { "Tunai", "Transfer", "Tidak Ada" };
+
+    private EmbeddedDatabase() {}
+
+    /**
+     * Run the schema script, then generate data if the database is empty
+     * @param schema classpath resource of the schema script, e.g. /config/schema.sql
+     */
+    static void initialize(ConnectionPool pool, String schema, Properties props) throws SQLException {
+        Connection conn = null;
+        try {
+            conn = pool.borrow();
+            runScript(conn, schema);
+            if (isEmpty(conn)) {
+                long start = System.currentTimeMillis();
+                seed(conn, props);
+                AppLogger.logPerformance("Seed embedded database", System.currentTimeMillis() - start);
+            }
+        } finally {
+            DatabaseManager.closeResources(conn, null, null);
+        }
+    }
+
+    /**
+     * Execute a script of ;-terminated statements; lines starting with -- are comments
+     */
+    private static void runScript(Connection conn, String resource) throws SQLException {
+        String script;
+        try (InputStream input = EmbeddedDatabase.class.getResourceAsStream(resource)) {
+            if (input == null) {
+                throw new SQLException("Schema script not found: " + resource);
+            }
+            script = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Cannot read schema script " + resource, e);
+        }
+
+        StringBuilder withoutComments = new StringBuilder(script.length());
+        for (String line : script.split("\\R")) {
+            if (!line.trim().startsWith("--")) {
+                withoutComments.append(line).append('\n');
+            }
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            for (String statement : withoutComments.toString().split(";")) {
+                if (!statement.isBlank()) {
+                    stmt.execute(statement.trim());
+                }
+            }
+        }
+        AppLogger.logDatabaseOperation("SCHEMA", resource, true);
+    }
+
+    private static boolean isEmpty(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + AppConstants.Database.TABLE_COSTUME)) {
+            return rs.next() && rs.getInt(1) == 0;
+        }
+    }
+
+    private static void seed(Connection conn, Properties props) throws SQLException {
+        int costumes = intProperty(props, "db.seed.costumes", 0);
+        int customers = intProperty(props, "db.seed.customers", 0);
+        int rentals = intProperty(props, "db.seed.rentals", 0);
+        int returns = intProperty(props, "db.seed.returns", 0);
+        int users = intProperty(props, "db.seed.users", 0);
+        Random random = new Random(intProperty(props, "db.seed.random", 42));
+
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            seedCostumes(conn, random, costumes);
+            seedCustomers(conn, random, customers);
+            if (costumes > 0 && customers > 0) {
+                seedRentals(conn, random, rentals, costumes, customers);
+                seedReturns(conn, random, returns, costumes, customers);
+            }
+            seedUsers(conn, users, props.getProperty("db.seed.password", ""));
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+
+        AppLogger.logSystemEvent("Embedded database seeded", String.format(
+            "costumes=%d, customers=%d, rentals=%d, returns=%d, users=%d", costumes, customers, rentals, returns, users));
+    }
+
+    private static void seedCostumes(Connection conn, Random random, int count) throws SQLException {
+        String query = "INSERT INTO " + AppConstants.Database.TABLE_COSTUME +
+                      " (NamaKarakter, AsalKarakter, Ukuran, Stok, Harga) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            for (int i = 1; i <= count; i++) {
+                pstmt.setString(1, "Karakter " + i);
+                pstmt.setString(2, pick(random, ORIGINS));
+                pstmt.setString(3, pick(random, SIZES));
+                pstmt.setInt(4, random.nextInt(10));
+                pstmt.setBigDecimal(5, BigDecimal.valueOf(50000 + random.nextInt(20) * 5000L));
+                addBatch(pstmt, i, count);
+            }
+        }
+    }
+
+    private static void seedCustomers(Connection conn, Random random, int count) throws SQLException {
+        String query = "INSERT INTO " + AppConstants.Database.TABLE_CUSTOMER +
+                      " (NamaPelanggan, Alamat, AkunInstagram, NomorHP) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            for (int i = 1; i <= count; i++) {
+                pstmt.setString(1, customerName(i));
+                pstmt.setString(2, "Jl. Merdeka No. " + (1 + random.nextInt(200)) + ", " + pick(random, CITIES));
+                pstmt.setString(3, "@cosplayer" + i);
+                pstmt.setString(4, "08" + (1000000000L + random.nextInt(900000000)));
+                addBatch(pstmt, i, count);
+            }
+        }
+    }
+
+    /**
+     * Open rentals, due from a week ago (overdue) to three weeks ahead
+     */
+    private static void seedRentals(Connection conn, Random random, int count, int costumes, int customers) throws SQLException {
+        String query = "INSERT INTO " + AppConstants.Database.TABLE_RENTAL +
+                      " (IDKostum, NamaKarakter, NamaPelanggan, TanggalPeminjaman, TanggalPengembalian, " +
+                      "BiayaRental, Ekspedisi, Resi, Jumlah) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        LocalDate today = LocalDate.now();
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            for (int i = 1; i <= count; i++) {
+                int costumeId = 1 + random.nextInt(costumes);
+                LocalDate due = today.plusDays(random.nextInt(28) - 7L);
+                int days = 1 + random.nextInt(7);
+                int quantity = 1 + random.nextInt(2);
+                pstmt.setInt(1, costumeId);
+                pstmt.setString(2, "Karakter " + costumeId);
+                pstmt.setString(3, customerName(1 + random.nextInt(customers)));
+                pstmt.setDate(4, Date.valueOf(due.minusDays(days)));
+                pstmt.setDate(5, Date.valueOf(due));
+                pstmt.setBigDecimal(6, BigDecimal.valueOf(75000L * days * quantity));
+                pstmt.setString(7, pick(random, SHIPPING));
+                pstmt.setString(8, "RESI" + (100000 + i));
+                pstmt.setInt(9, quantity);
+                addBatch(pstmt, i, count);
+            }
+        }
+    }
+
+    private static void seedReturns(Connection conn, Random random, int count, int costumes, int customers) throws SQLException {
+        String query = "INSERT INTO " + AppConstants.Database.TABLE_RETURN +
+                      " (IDKostum, NamaKarakter, NamaPelanggan, Keterlambatan, Denda, PembayaranDenda, " +
+                      "EkspedisiPengembalian, ResiPengembalian, Jumlah) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            for (int i = 1; i <= count; i++) {
+                int costumeId = 1 + random.nextInt(costumes);
+                // Most returns are on time
+                int daysLate = random.nextInt(10) < 8 ? 0 : 1 + random.nextInt(5);
+                int quantity = 1 + random.nextInt(2);
+                pstmt.setInt(1, costumeId);
+                pstmt.setString(2, "Karakter " + costumeId);
+                pstmt.setString(3, customerName(1 + random.nextInt(customers)));
+                pstmt.setInt(4, daysLate);
+                pstmt.setBigDecimal(5, AppConstants.Business.DAILY_LATE_FEE.multiply(BigDecimal.valueOf((long) daysLate * quantity)));
+                pstmt.setString(6, daysLate == 0 ? "Tidak Ada" : pick(random, FINE_PAYMENT));
+                pstmt.setString(7, pick(random, SHIPPING));
+                pstmt.setString(8, "RET" + (100000 + i));
+                pstmt.setInt(9, quantity);
+                addBatch(pstmt, i, count);
+            }
+        }
+    }
+
+    /**
+     * Staff accounts user1..userN sharing the configured password, for exercising the login path
+     */
+    private static void seedUsers(Connection conn, int count, String password) throws SQLException {
+        if (count <= 0) {
+            return;
+        }
+        if (password.isEmpty()) {
+            AppLogger.logWarning("db.seed.users is set but db.seed.password is empty; no users seeded");
+            return;
+        }
+        String query = "INSERT INTO " + AppConstants.Database.TABLE_USER +
+                      " (username, password_hash, salt, email, full_name, role, is_active, created_at, updated_at) " +
+                      "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            for (int i = 1; i <= count; i++) {
+                String salt = PasswordSecurity.generateSalt();
+                pstmt.setString(1, "user" + i);
+                pstmt.setString(2, PasswordSecurity.createHash(password, salt));
+                pstmt.setString(3, salt);
+                pstmt.setString(4, "user" + i + "@rentalcosplay.local");
+                pstmt.setString(5, "User " + i);
+                pstmt.setString(6, i == 1 ? "ADMIN" : "USER");
+                pstmt.setBoolean(7, true);
+                pstmt.setTimestamp(8, now);
+                pstmt.setTimestamp(9, now);
+                addBatch(pstmt, i, count);
+            }
+        }
+    }
+
+    /**
+     * Queue the current row and send the batch every BATCH_SIZE rows and after the last one
+     */
+    private static void addBatch(PreparedStatement pstmt, int row, int count) throws SQLException {
+        pstmt.addBatch();
+        if (row % BATCH_SIZE == 0 || row == count) {
+            pstmt.executeBatch();
+        }
+    }
+
+    private static String customerName(int index) {
+        return FIRST_NAMES[index % FIRST_NAMES.length] + " " + LAST_NAMES[(index / FIRST_NAMES.length) % LAST_NAMES.length]
+             + " " + index;
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static int intProperty(Properties props, String key, int defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            AppLogger.logWarning("Invalid value for %s: %s", key, value);
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,473 @@
+package code;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.swing.JTable;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import util.AppLogger;
+
+/**
+ * Read-only table model that fetches rows page by page as the table asks for them.
+ * Pages are read with keyset pagination on the table's numeric primary key
+ * (WHERE key > last key of previous page), so every fetch is an index range
+ * scan regardless of how deep the user has scrolled. Only the most recently
+ * used pages are kept; a row whose page is not loaded shows a placeholder
+ * until the background fetch completes. A page whose fetch failed shows an
+ * error row and is not fetched again until the model is refreshed.
+ */
+public class KeysetTableModel extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int DEFAULT_MAX_PAGES = 20;
+    public static final String LOADING = "...";
+    public static final String FAILED = "Gagal memuat";
+
+    private static final ExecutorService FETCHER = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "table-page-fetcher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final String table;
+    private final String keyColumn;
+    private final String[] columns;
+    private final String[] labels;
+    private final int keyIndex;
+    private final int pageSize;
+    private final int maxPages;
+
+    // Guarded by this
+    private final LinkedHashMap<Integer, Object[][]> pages;
+    // Page number -> key of the last row on the previous page; page 0 has no lower bound
+    private final TreeMap<Integer, Long> bounds = new TreeMap<>();
+    private final Set<Integer> pending = new HashSet<>();
+    // Pages whose fetch failed; cleared by open so a failing database is not queried on every repaint
+    private final Set<Integer> failed = new HashSet<>();
+    private int generation;
+
+    private volatile int rowCount;
+
+    public KeysetTableModel(String table, String keyColumn, String[] columns, String[] labels) {
+        this(table, keyColumn, columns, labels, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES);
+    }
+
+    public KeysetTableModel(String table, String keyColumn, String[] columns, String[] labels,
+                            int pageSize, int maxPages) {
+        if (columns.length != labels.length) {
+            throw new IllegalArgumentException("Each column needs a label");
+        }
+        this.table = table;
+        this.keyColumn = keyColumn;
+        this.columns = columns.clone();
+        this.labels = labels.clone();
+        this.pageSize = Math.max(1, pageSize);
+        this.maxPages = Math.max(2, maxPages);
+
+        int key = -1;
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].equalsIgnoreCase(keyColumn)) {
+                key = i;
+            }
+        }
+        if (key < 0) {
+            throw new IllegalArgumentException("Key column " + keyColumn + " must be one of the selected columns");
+        }
+        this.keyIndex = key;
+
+        this.pages = new LinkedHashMap<Integer, Object[][]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Object[][]> eldest) {
+                return size() > KeysetTableModel.this.maxPages;
+            }
+        };
+    }
+
+    /**
+     * Count the rows and fetch the first page. Blocks on the database; call off the EDT
+     * before handing the model to a table.
+     */
+    public KeysetTableModel open() throws SQLException {
+        int count = countRows();
+        Object[][] first = fetchPage(0);
+        synchronized (this) {
+            pages.clear();
+            bounds.clear();
+            pending.clear();
+            failed.clear();
+            generation++;
+            pages.put(0, first);
+            if (first.length == pageSize) {
+                bounds.put(1, ((Number) first[pageSize - 1][keyIndex]).longValue());
+            }
+        }
+        rowCount = count;
+        return this;
+    }
+
+    /**
+     * Drop every cached page and re-count in the background, e.g. after rows were inserted or deleted
+     */
+    public void refresh() {
+        FETCHER.submit(() -> {
+            try {
+                open();
+                SwingUtilities.invokeLater(this::fireTableDataChanged);
+            } catch (SQLException e) {
+                AppLogger.logDatabaseError("refresh", table, e);
+            }
+        });
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return labels[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        int page = rowIndex / pageSize;
+        Object[][] rows;
+        boolean failedPage = false;
+        synchronized (this) {
+            rows = pages.get(page);
+            if (rows == null) {
+                failedPage = failed.contains(page);
+                if (!failedPage) {
+                    request(page);
+                }
+            }
+        }
+        if (rows == null) {
+            return columnIndex != 0 ? "" : failedPage ? FAILED : LOADING;
+        }
+        int offset = rowIndex % pageSize;
+        // Rows deleted since the count was taken leave the tail of the last page short
+        return offset < rows.length ? rows[offset][columnIndex] : "";
+    }
+
+    /**
+     * Add a row that was just inserted with a key above every existing key, without refetching.
+     * Call on the EDT.
+     */
+    public void appendRow(Object[] row) {
+        if (row.length != columns.length) {
+            throw new IllegalArgumentException("Expected " + columns.length + " values, got " + row.length);
+        }
+        int index;
+        synchronized (this) {
+            index = rowCount;
+            int page = index / pageSize;
+            Object[][] rows = pages.get(page);
+            if (rows != null) {
+                if (rows.length == index % pageSize) {
+                    Object[][] grown = Arrays.copyOf(rows, rows.length + 1);
+                    grown[rows.length] = row.clone();
+                    pages.put(page, grown);
+                } else {
+                    // Page no longer lines up with the count (concurrent deletes); let it be refetched
+                    pages.remove(page);
+                }
+            }
+            rowCount = index + 1;
+        }
+        fireTableRowsInserted(index, index);
+    }
+
+    /**
+     * Replace the row with the same key if it is in a loaded page, otherwise append it as a new row.
+     * Use for rows that were just saved, so a row already fetched by a concurrent load is not added twice.
+     * Call on the EDT.
+     */
+    public void putRow(Object[] row) {
+        if (!updateRowWithKey(((Number) row[keyIndex]).longValue(), row)) {
+            appendRow(row);
+        }
+    }
+
+    /**
+     * Replace the row with the given key in place, without refetching. Call on the EDT.
+     * @return false if the row is not in a loaded page; it will show the new values when its page is fetched
+     */
+    public boolean updateRowWithKey(long key, Object[] row) {
+        if (row.length != columns.length) {
+            throw new IllegalArgumentException("Expected " + columns.length + " values, got " + row.length);
+        }
+        int index = -1;
+        synchronized (this) {
+            for (Map.Entry<Integer, Object[][]> entry : pages.entrySet()) {
+                Object[][] rows = entry.getValue();
+                for (int i = 0; i < rows.length; i++) {
+                    if (((Number) rows[i][keyIndex]).longValue() == key) {
+                        rows[i] = row.clone();
+                        index = entry.getKey() * pageSize + i;
+                        break;
+                    }
+                }
+                if (index >= 0) {
+                    break;
+                }
+            }
+        }
+        if (index < 0) {
+            return false;
+        }
+        fireTableRowsUpdated(index, index);
+        return true;
+    }
+
+    /**
+     * Remove the row with the given key after it was deleted from the database, without refetching.
+     * Call on the EDT.
+     * @return false if the row is not in a loaded page; the model is refreshed instead
+     */
+    public boolean removeRowWithKey(long key) {
+        int index = -1;
+        synchronized (this) {
+            for (Map.Entry<Integer, Object[][]> entry : pages.entrySet()) {
+                Object[][] rows = entry.getValue();
+                for (int i = 0; i < rows.length; i++) {
+                    if (((Number) rows[i][keyIndex]).longValue() == key) {
+                        index = entry.getKey() * pageSize + i;
+                        break;
+                    }
+                }
+                if (index >= 0) {
+                    break;
+                }
+            }
+            if (index >= 0) {
+                int page = index / pageSize;
+                Object[][] rows = pages.get(page);
+                Object[][] shrunk = new Object[rows.length - 1][];
+                int offset = index % pageSize;
+                System.arraycopy(rows, 0, shrunk, 0, offset);
+                System.arraycopy(rows, offset + 1, shrunk, offset, rows.length - offset - 1);
+                // Every later page shifts up by one row; drop them and their boundaries.
+                // The shortened page is only cached if it was the last one; otherwise it is refetched whole.
+                pages.keySet().removeIf(p -> p >= page);
+                bounds.tailMap(page, false).clear();
+                if ((page + 1) * pageSize >= rowCount) {
+                    pages.put(page, shrunk);
+                }
+                rowCount--;
+            }
+        }
+        if (index < 0) {
+            refresh();
+            return false;
+        }
+        fireTableRowsDeleted(index, index);
+        return true;
+    }
+    
+    /**
+     * Whether a row of the table is selected and holds real data rather than a placeholder,
+     * so it can be copied into form fields; rows of other models always do
+     */
+    public static boolean isRowLoaded(JTable table, int rowIndex) {
+        if (rowIndex < 0) {
+            return false;
+        }
+        if (!(table.getModel() instanceof KeysetTableModel)) {
+            return true;
+        }
+        KeysetTableModel model = (KeysetTableModel) table.getModel();
+        synchronized (model) {
+            return model.pages.containsKey(rowIndex / model.pageSize);
+        }
+    }
+
+    /**
+     * Queue a background fetch of a page unless one is already running. Caller holds the lock.
+     */
+    private void request(int page) {
+        if (!pending.add(page)) {
+            return;
+        }
+        int requestedIn = generation;
+        FETCHER.submit(() -> {
+            Object[][] rows = null;
+            try {
+                rows = fetchPage(page);
+            } catch (SQLException e) {
+                AppLogger.logDatabaseError("fetchPage", table, e);
+            }
+            Object[][] fetched = rows;
+            SwingUtilities.invokeLater(() -> publish(page, fetched, requestedIn));
+        });
+    }
+
+    private void publish(int page, Object[][] rows, int requestedIn) {
+        synchronized (this) {
+            if (requestedIn != generation) {
+                return;
+            }
+            pending.remove(page);
+            if (rows == null) {
+                failed.add(page);
+            } else {
+                pages.put(page, rows);
+            }
+        }
+        int first = page * pageSize;
+        int last = Math.min(rowCount, first + pageSize) - 1;
+        if (last >= first) {
+            fireTableRowsUpdated(first, last);
+        }
+    }
+
+    private int countRows() throws SQLException {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseManager.getInstance().getConnection();
+            pstmt = conn.prepareStatement("SELECT COUNT(*) FROM " + table);
+            rs = pstmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        } finally {
+            DatabaseManager.closeResources(conn, pstmt, rs);
+        }
+    }
+
+    private Object[][] fetchPage(int page) throws SQLException {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseManager.getInstance().getConnection();
+            Long bound = page == 0 ? null : lowerBound(conn, page);
+            if (page > 0 && bound == null) {
+                // Fewer rows than the page number implies; table shrank since it was counted
+                return new Object[0][];
+            }
+
+            String query = "SELECT " + String.join(", ", columns) + " FROM " + table
+                         + (bound != null ? " WHERE " + keyColumn + " > ?" : "")
+                         + " ORDER BY " + keyColumn + " LIMIT ?";
+            pstmt = conn.prepareStatement(query);
+            int index = 1;
+            if (bound != null) {
+                pstmt.setLong(index++, bound);
+            }
+            pstmt.setInt(index, pageSize);
+            rs = pstmt.executeQuery();
+
+            Object[][] rows = new Object[pageSize][];
+            int count = 0;
+            while (rs.next()) {
+                Object[] row = new Object[columns.length];
+                for (int i = 0; i < columns.length; i++) {
+                    row[i] = rs.getObject(i + 1);
+                }
+                rows[count++] = row;
+            }
+
+            if (count == pageSize) {
+                long lastKey = ((Number) rows[count - 1][keyIndex]).longValue();
+                synchronized (this) {
+                    bounds.put(page + 1, lastKey);
+                    trimBounds();
+                }
+            }
+            if (count < pageSize) {
+                Object[][] shorter = new Object[count][];
+                System.arraycopy(rows, 0, shorter, 0, count);
+                rows = shorter;
+            }
+            return rows;
+        } finally {
+            DatabaseManager.closeResources(conn, pstmt, rs);
+        }
+    }
+
+    /**
+     * Key of the last row before the page. Learned from earlier fetches when possible;
+     * otherwise skips forward from the nearest known boundary over the primary key index alone.
+     */
+    private Long lowerBound(Connection conn, int page) throws SQLException {
+        int fromPage;
+        Long fromKey;
+        synchronized (this) {
+            Long known = bounds.get(page);
+            if (known != null) {
+                return known;
+            }
+            Map.Entry<Integer, Long> nearest = bounds.floorEntry(page);
+            fromPage = nearest != null ? nearest.getKey() : 0;
+            fromKey = nearest != null ? nearest.getValue() : null;
+        }
+
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            String query = "SELECT " + keyColumn + " FROM " + table
+                         + (fromKey != null ? " WHERE " + keyColumn + " > ?" : "")
+                         + " ORDER BY " + keyColumn + " LIMIT 1 OFFSET ?";
+            pstmt = conn.prepareStatement(query);
+            int index = 1;
+            if (fromKey != null) {
+                pstmt.setLong(index++, fromKey);
+            }
+            pstmt.setInt(index, (page - fromPage) * pageSize - 1);
+            rs = pstmt.executeQuery();
+            if (!rs.next()) {
+                return null;
+            }
+            long key = rs.getLong(1);
+            synchronized (this) {
+                bounds.put(page, key);
+                trimBounds();
+            }
+            return key;
+        } finally {
+            DatabaseManager.closeResources(null, pstmt, rs);
+        }
+    }
+
+    /**
+     * Keep the boundary map from growing without limit on very large tables:
+     * drop every other learned boundary, which at most doubles the next skip distance
+     */
+    private void trimBounds() {
+        int limit = maxPages * 64;
+        if (bounds.size() <= limit) {
+            return;
+        }
+        Iterator<Integer> it = bounds.keySet().iterator();
+        boolean drop = false;
+        while (it.hasNext()) {
+            it.next();
+            if (drop) {
+                it.remove();
+            }
+            drop = !drop;
+        }
+    }
+}
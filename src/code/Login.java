@@ -10,6 +10,7 @@ import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.Statement;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 import model.User;
 import service.UserService;
 import util.AppConstants;
@@ -195,30 +196,36 @@ public class Login extends javax.swing.JFrame {
             return;
         }
         
-        try {
-            // Use UserService for authentication
-            User authenticatedUser = UserService.getInstance().authenticate(username, password);
-            
-            if (authenticatedUser != null) {
-                // Store current user in session (you might want to implement a proper session manager)
-                CurrentUserSession.setCurrentUser(authenticatedUser);
-                
-                JOptionPane.showMessageDialog(this, 
-                    AppConstants.SuccessMessages.LOGIN_SUCCESS + "! Selamat datang, " + authenticatedUser.getUsername());
-                
-                // Navigate to main application
-                new Costume().setVisible(true);
-                this.dispose();
-            } else {
-                JOptionPane.showMessageDialog(this, "Username atau Password yang Anda Masukkan Salah");
-                // Clear password field for security
-                Passtxt.setText("");
-            }
-            
-        } catch(Exception e) {
-            AppLogger.logError("Unexpected error during login", e);
-            JOptionPane.showMessageDialog(this, "Terjadi kesalahan sistem. Silakan coba lagi.");
-        }
+        // Hashing takes a noticeable fraction of a second; verify off the EDT
+        Loginbtn.setEnabled(false);
+        UserService.getInstance().authenticateAsync(username, password)
+            .whenComplete((authenticatedUser, error) -> SwingUtilities.invokeLater(() -> {
+                Loginbtn.setEnabled(true);
+                if (error != null) {
+                    AppLogger.logError("Unexpected error during login", error);
+                    JOptionPane.showMessageDialog(this, "Terjadi kesalahan sistem. Silakan coba lagi.");
+                } else if (authenticatedUser != null) {
+                    // Store current user in session (you might want to implement a proper session manager)
+                    CurrentUserSession.setCurrentUser(authenticatedUser);
+                    
+                    JOptionPane.showMessageDialog(this, 
+                        AppConstants.SuccessMessages.LOGIN_SUCCESS + "! Selamat datang, " + authenticatedUser.getUsername());
+                    
+                    // Navigate to main application
+                    Navigator.getInstance().show(this, Costume.class, Costume::new);
+                } else {
+                    long lockedSeconds = UserService.getInstance().getLockoutRemainingSeconds(username);
+                    if (lockedSeconds > 0) {
+                        JOptionPane.showMessageDialog(this, 
+                            String.format(AppConstants.ErrorMessages.ACCOUNT_LOCKED, (lockedSeconds + 59) / 60));
+                        Passtxt.setText("");
+                        return;
+                    }
+                    JOptionPane.showMessageDialog(this, "Username atau Password yang Anda Masukkan Salah");
+                    // Clear password field for security
+                    Passtxt.setText("");
+                }
+            }));
     }//GEN-LAST:event_LoginbtnActionPerformed
 
     private void jLabel1MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jLabel1MouseClicked
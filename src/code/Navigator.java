@@ -0,0 +1,107 @@
+package code;
+
+import java.awt.Window;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.swing.JFrame;
+import service.UserService;
+import util.AppLogger;
+import util.CurrentUserSession;
+
+/**
+ * Switches between the application's screens without rebuilding them.
+ * Each screen is created the first time it is shown and afterwards only hidden
+ * and shown again, so its components, table models and loaded pages survive
+ * navigation. A screen that implements Refreshable is told when it is shown
+ * again so it can pick up what changed while it was hidden.
+ * Must be used on the EDT.
+ */
+public final class Navigator {
+
+    /**
+     * A screen that wants to bring its data up to date when it is shown again
+     */
+    public interface Refreshable {
+        /**
+         * Called on the EDT each time the screen is shown after its first appearance
+         */
+        void onShown();
+    }
+
+    private static Navigator instance;
+
+    private final Map<Class<? extends JFrame>, JFrame> screens = new LinkedHashMap<>();
+
+    private Navigator() {}
+
+    public static synchronized Navigator getInstance() {
+        if (instance == null) {
+            instance = new Navigator();
+        }
+        return instance;
+    }
+
+    /**
+     * Show a screen in place of the current window
+     * @param from the window being left; hidden if it is a registered screen, disposed otherwise (e.g. Login)
+     * @param type screen class, used as the registry key
+     * @param factory builds the screen the first time it is needed
+     * @return the screen now showing
+     */
+    public <T extends JFrame> T show(Window from, Class<T> type, Supplier<T> factory) {
+        long start = System.currentTimeMillis();
+        JFrame screen = screens.get(type);
+        boolean created = screen == null;
+        if (created) {
+            screen = factory.get();
+            screens.put(type, screen);
+        }
+
+        if (!created && screen instanceof Refreshable) {
+            ((Refreshable) screen).onShown();
+        }
+        if (screen != from) {
+            screen.setVisible(true);
+            if (from != null) {
+                if (screens.containsValue(from)) {
+                    from.setVisible(false);
+                } else {
+                    from.dispose();
+                }
+            }
+        }
+
+        AppLogger.logPerformance("Show " + type.getSimpleName() + (created ? " (created)" : ""),
+                                 System.currentTimeMillis() - start);
+        return type.cast(screen);
+    }
+
+    /**
+     * Close every screen and return to the login window, e.g. on logout or an expired session
+     */
+    public void logout(Window from) {
+        if (CurrentUserSession.isLoggedIn()) {
+            UserService.getInstance().logout(CurrentUserSession.getCurrentUsername());
+        }
+        CurrentUserSession.clearSession();
+        closeAll();
+        if (from != null && from.isDisplayable()) {
+            from.dispose();
+        }
+        new Login().setVisible(true);
+    }
+
+    /**
+     * Dispose every registered screen; the next show builds them again
+     */
+    public void closeAll() {
+        List<JFrame> open = new ArrayList<>(screens.values());
+        screens.clear();
+        for (JFrame screen : open) {
+            screen.dispose();
+        }
+    }
+}
@@ -1,32 +1,166 @@
 package code;
 
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import util.AppConstants;
 
 /**
  * Password Security Utility Class
- * Provides password hashing and verification functionality
+ * Provides password hashing and verification functionality.
+ * New hashes use PBKDF2-HMAC-SHA256 and are stored self-describing as
+ * pbkdf2-sha256$iterations$salt$hash, so the cost can be raised later without
+ * breaking existing accounts. Plain SHA-256 hashes from older versions still verify.
  */
 public class PasswordSecurity {
     
     private static final String ALGORITHM = "SHA-256";
+    private static final String KDF_ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String KDF_ID = "pbkdf2-sha256";
     private static final int SALT_LENGTH = 16;
+    private static final int HASH_LENGTH_BITS = 256;
+    private static final SecureRandom RANDOM = new SecureRandom();
+    
+    private static volatile int iterations = AppConstants.System.PASSWORD_HASH_ITERATIONS;
     
     /**
      * Generate a random salt
      * @return Base64 encoded salt
      */
     public static String generateSalt() {
-        SecureRandom random = new SecureRandom();
         byte[] salt = new byte[SALT_LENGTH];
-        random.nextBytes(salt);
+        RANDOM.nextBytes(salt);
         return Base64.getEncoder().encodeToString(salt);
     }
     
     /**
-     * Hash a password with salt
+     * Hash a password with PBKDF2 at the current cost
+     * @param password The plain text password
+     * @param salt Base64 salt from generateSalt()
+     * @return Self-describing hash: pbkdf2-sha256$iterations$salt$hash
+     */
+    public static String createHash(String password, String salt) {
+        int cost = iterations;
+        byte[] hash = pbkdf2(password, Base64.getDecoder().decode(salt), cost);
+        return KDF_ID + "$" + cost + "$" + salt + "$" + Base64.getEncoder().encodeToString(hash);
+    }
+    
+    /**
+     * Verify a password against a stored hash of either format
+     * @param password The plain text password to verify
+     * @param storedHash Value of password_hash
+     * @param salt Value of the salt column; only used by legacy SHA-256 hashes
+     * @return true if password matches, false otherwise
+     */
+    public static boolean verify(String password, String storedHash, String salt) {
+        if (storedHash == null) {
+            return false;
+        }
+        if (!storedHash.startsWith(KDF_ID + "$")) {
+            return salt != null && verifyPassword(password, storedHash, salt);
+        }
+        String[] parts = storedHash.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            int cost = Integer.parseInt(parts[1]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            byte[] actual = pbkdf2(password, Base64.getDecoder().decode(parts[2]), cost);
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Whether a stored hash should be replaced after a successful login:
+     * it is a legacy SHA-256 hash or was made with a different cost than the current one
+     */
+    public static boolean needsRehash(String storedHash) {
+        if (storedHash == null || !storedHash.startsWith(KDF_ID + "$")) {
+            return true;
+        }
+        String[] parts = storedHash.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) != iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+    
+    public static int getIterations() {
+        return iterations;
+    }
+    
+    /**
+     * Change the PBKDF2 cost for new hashes; existing hashes are upgraded on their next login
+     */
+    public static void setIterations(int cost) {
+        if (cost < AppConstants.System.PASSWORD_HASH_MIN_ITERATIONS) {
+            throw new IllegalArgumentException("PBKDF2 cost below minimum: " + cost);
+        }
+        iterations = cost;
+    }
+    
+    /**
+     * Measure this machine and pick the highest PBKDF2 cost whose p99 hash time
+     * stays within the budget, rounded down to a thousand and never below the minimum.
+     * Takes a few seconds; meant to be run once on the target hardware
+     * (see main) and the result put into PASSWORD_HASH_ITERATIONS.
+     */
+    public static int calibrateIterations(long budgetMillis) {
+        final int probe = 20_000;
+        final int samples = 50;
+        byte[] salt = new byte[SALT_LENGTH];
+        RANDOM.nextBytes(salt);
+        
+        // Let the JIT compile the HMAC loop before timing it
+        for (int i = 0; i < 10; i++) {
+            pbkdf2("calibration", salt, probe);
+        }
+        double nanosPerIteration = p99Nanos(salt, probe, samples) / (double) probe;
+        int cost = (int) Math.min(Integer.MAX_VALUE, budgetMillis * 1_000_000L / nanosPerIteration);
+        cost = Math.max(AppConstants.System.PASSWORD_HASH_MIN_ITERATIONS, cost / 1000 * 1000);
+        
+        // Extrapolation is optimistic under load; step down until a direct measurement fits
+        while (cost > AppConstants.System.PASSWORD_HASH_MIN_ITERATIONS
+                && p99Nanos(salt, cost, 20) > budgetMillis * 1_000_000L) {
+            cost = Math.max(AppConstants.System.PASSWORD_HASH_MIN_ITERATIONS, cost * 9 / 10 / 1000 * 1000);
+        }
+        return cost;
+    }
+    
+    private static long p99Nanos(byte[] salt, int cost, int samples) {
+        long[] times = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            long start = System.nanoTime();
+            pbkdf2("calibration", salt, cost);
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        return times[(int) Math.ceil(samples * 0.99) - 1];
+    }
+    
+    private static byte[] pbkdf2(String password, byte[] salt, int cost) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, cost, HASH_LENGTH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(KDF_ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Error hashing password", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+    
+    /**
+     * Hash a password with salt using the legacy single SHA-256 round.
+     * Kept to verify hashes stored by older versions; new hashes use createHash.
      * @param password The plain text password
      * @param salt The salt to use
      * @return Hashed password
@@ -140,4 +274,15 @@ public class PasswordSecurity {
         
         return "Password kuat";
     }
+    
+    /**
+     * Print the PBKDF2 cost that fits a login budget on this machine
+     * @param args optional budget in milliseconds
+     */
+    public static void main(String[] args) {
+        long budget = args.length > 0 ? Long.parseLong(args[0]) : AppConstants.System.PASSWORD_HASH_BUDGET_MS;
+        int cost = calibrateIterations(budget);
+        System.out.printf("PBKDF2 cost for a %d ms p99 budget: %d iterations (current %d)%n",
+                                    budget, cost, iterations);
+    }
 }
\ No newline at end of file
@@ -11,15 +11,21 @@ import java.sql.ResultSet;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
 import javax.swing.JOptionPane;
-import javax.swing.table.DefaultTableModel;
-import net.proteanit.sql.DbUtils;
+import javax.swing.table.TableModel;
+import model.Customer;
+import service.CustomerService;
+import service.DomainEvent;
+import util.BackgroundLoader;
+import util.EventBus;
 
 /**
  *
  * @author ASUS
  */
-public class Pelanggan extends javax.swing.JFrame {
+public class Pelanggan extends javax.swing.JFrame implements Navigator.Refreshable {
 
     /**
      * Creates new form Pelanggan
@@ -32,6 +38,7 @@ public class Pelanggan extends javax.swing.JFrame {
         initComponents();
         TampilkanPelanggan();
         IDPtxt.setEditable(false);
+        subscriptions.add(EventBus.getInstance().subscribe(DomainEvent.CustomerChanged.class, this::pelangganBerubah));
     }
     
     /**
@@ -43,16 +50,59 @@ public class Pelanggan extends javax.swing.JFrame {
     Connection Con = null;
     Statement  St = null;
     ResultSet Rs = null;
+    private final List<EventBus.Subscription> subscriptions = new ArrayList<>();
+    // A change arrived while hidden that could not be applied row by row
+    private boolean pelangganBasi;
+    
+    /**
+     * Screen shown again by the Navigator. Changes from other screens were applied as they
+     * happened; only reload if one of them could not be.
+     */
+    @Override
+    public void onShown() {
+        if (pelangganBasi) {
+            pelangganBasi = false;
+            TampilkanPelanggan();
+        }
+    }
     
     private void TampilkanPelanggan(){
-    try{
-    Con = DriverManager.getConnection("jdbc:mysql://localhost/rental_cosplay","root","");
-    St = Con.createStatement();
-    Rs = St.executeQuery("select IDPelanggan as 'ID Pelanggan', NamaPelanggan as 'Nama Pelanggan', Alamat, AkunInstagram as 'Akun IG', NomorHP as 'No. HP' from pelanggan");
-    Pelanggantb.setModel(DbUtils.resultSetToTableModel(Rs));
-    }catch(SQLException e){
-        e.printStackTrace();
-    }}
+        BackgroundLoader.getInstance().load(this, "pelanggan", () -> new KeysetTableModel("pelanggan", "IDPelanggan",
+            new String[] { "IDPelanggan", "NamaPelanggan", "Alamat", "AkunInstagram", "NomorHP" },
+            new String[] { "ID Pelanggan", "Nama Pelanggan", "Alamat", "Akun IG", "No. HP" }).open(),
+            Pelanggantb::setModel);
+    }
+
+    /**
+     * Apply a saved or deleted customer to the table without reloading it
+     */
+    private void pelangganBerubah(DomainEvent.CustomerChanged event){
+        if (!(Pelanggantb.getModel() instanceof KeysetTableModel)) {
+            if (isShowing()) {
+                TampilkanPelanggan();
+            } else {
+                pelangganBasi = true;
+            }
+            return;
+        }
+        KeysetTableModel model = (KeysetTableModel) Pelanggantb.getModel();
+        if (event.getKind() == DomainEvent.CustomerChanged.Kind.DELETED) {
+            model.removeRowWithKey(event.getCustomerId());
+        } else {
+            Customer pelanggan = event.getCustomer();
+            model.putRow(new Object[] { pelanggan.getCustomerId(), pelanggan.getName(), pelanggan.getAddress(),
+                pelanggan.getInstagramAccount(), pelanggan.getPhoneNumber() });
+        }
+    }
+
+    @Override
+    public void dispose() {
+        // Drop results of loads that would otherwise land on a closed screen
+        BackgroundLoader.getInstance().cancelAll(this);
+        subscriptions.forEach(EventBus.Subscription::cancel);
+        subscriptions.clear();
+        super.dispose();
+    }
     
     @SuppressWarnings("unchecked")
     // <editor-fold defaultstate="collapsed" desc="Generated Code">//GEN-BEGIN:initComponents
@@ -421,16 +471,13 @@ public class Pelanggan extends javax.swing.JFrame {
         }else{
         
         try{
-        Con = DriverManager.getConnection("jdbc:mysql://localhost/rental_cosplay","root","");
-        PreparedStatement add = Con.prepareStatement("insert into pelanggan(NamaPelanggan, Alamat, AkunInstagram, NomorHP) Values (?,?,?,?)");
-        add.setString(1, NamaPtxt.getText());
-        add.setString(2, AlamatPtxt.getText());
-        add.setString(3, AkunIGPtxt.getText());
-        add.setString(4, NoHPPtxt.getText());
-        
-        int row = add.executeUpdate();
+        // The table picks up the new row from the CustomerChanged event
+        Customer pelanggan = new Customer(NamaPtxt.getText(), AlamatPtxt.getText(), NoHPPtxt.getText(), AkunIGPtxt.getText());
+        if (CustomerService.getInstance().createCustomer(pelanggan) < 0) {
+            JOptionPane.showMessageDialog(this, "Data Pelanggan Gagal Ditambahkan");
+            return;
+        }
         JOptionPane.showMessageDialog(this, "Data Pelanggan Berhasil Ditambahkan");
-        TampilkanPelanggan();
         } catch (Exception e){
             e.printStackTrace();
         }
@@ -440,8 +487,11 @@ public class Pelanggan extends javax.swing.JFrame {
     private void PelanggantbMouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_PelanggantbMouseClicked
         // TODO add your handling code here:
         
-        DefaultTableModel model = (DefaultTableModel)Pelanggantb.getModel();
+        TableModel model = Pelanggantb.getModel();
         int Index = Pelanggantb.getSelectedRow();
+        if (!KeysetTableModel.isRowLoaded(Pelanggantb, Index)) {
+            return;
+        }
         IDPtxt.setText(model.getValueAt(Index, 0).toString());
         NamaPtxt.setText(model.getValueAt(Index, 1).toString());
         AlamatPtxt.setText(model.getValueAt(Index, 2).toString());
@@ -458,12 +508,10 @@ public class Pelanggan extends javax.swing.JFrame {
         }else{
         
         try{
-        Con = DriverManager.getConnection("jdbc:mysql://localhost/rental_cosplay","root","");
-        
-        String query = "Delete from Pelanggan where IDPelanggan = " + IDPtxt.getText() + "";
-        Statement Add = Con.createStatement();
-        Add.executeUpdate(query);
-        TampilkanPelanggan();
+        if (!CustomerService.getInstance().deleteCustomer(Integer.parseInt(IDPtxt.getText()))) {
+            JOptionPane.showMessageDialog(this, "Data Pelanggan Gagal Dihapus");
+            return;
+        }
         clear();
         JOptionPane.showMessageDialog(this, "Data Pelanggan Berhasil Dihapus");
         } catch (Exception e){
@@ -480,12 +528,12 @@ public class Pelanggan extends javax.swing.JFrame {
         }else{
         
         try{
-        Con = DriverManager.getConnection("jdbc:mysql://localhost/rental_cosplay","root","");
-        String ID = IDPtxt.getText();
-        String query = "Update pelanggan set NamaPelanggan= '" + NamaPtxt.getText() + "', Alamat= '" + AlamatPtxt.getText()+ "', AkunInstagram= '" + AkunIGPtxt.getText()+"', NomorHP= '" + NoHPPtxt.getText() + "' where IDPelanggan=" + ID ;
-        Statement Add = Con.createStatement();
-        Add.executeUpdate(query);
-        TampilkanPelanggan();
+        Customer pelanggan = new Customer(NamaPtxt.getText(), AlamatPtxt.getText(), NoHPPtxt.getText(), AkunIGPtxt.getText());
+        pelanggan.setCustomerId(Integer.parseInt(IDPtxt.getText()));
+        if (!CustomerService.getInstance().updateCustomer(pelanggan)) {
+            JOptionPane.showMessageDialog(this, "Data Pelanggan Gagal Diubah");
+            return;
+        }
         clear();
         JOptionPane.showMessageDialog(this, "Kostum Berhasil Diubah");
         } catch (Exception e){
@@ -496,26 +544,22 @@ public class Pelanggan extends javax.swing.JFrame {
 
     private void jLabel8MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jLabel8MouseClicked
         // TODO add your handling code here:
-        new Costume().setVisible(true);
-        this.dispose();
+        Navigator.getInstance().show(this, Costume.class, Costume::new);
     }//GEN-LAST:event_jLabel8MouseClicked
 
     private void jLabel9MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jLabel9MouseClicked
         // TODO add your handling code here:
-        new SewaKostum().setVisible(true);
-        this.dispose();
+        Navigator.getInstance().show(this, SewaKostum.class, SewaKostum::new);
     }//GEN-LAST:event_jLabel9MouseClicked
 
     private void jLabel10MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jLabel10MouseClicked
         // TODO add your handling code here:
-        new Pengembalian().setVisible(true);
-        this.dispose();
+        Navigator.getInstance().show(this, Pengembalian.class, Pengembalian::new);
     }//GEN-LAST:event_jLabel10MouseClicked
 
     private void jLabel11MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jLabel11MouseClicked
         // TODO add your handling code here:
-        new Login().setVisible(true);
-        this.dispose();
+        Navigator.getInstance().logout(this);
     }//GEN-LAST:event_jLabel11MouseClicked
 
     private void jLabel10MouseEntered(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jLabel10MouseEntered
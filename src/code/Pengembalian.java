@@ -5,21 +5,27 @@
 package code;
 
 import java.awt.Toolkit;
+import java.math.BigDecimal;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 import javax.swing.JOptionPane;
-import javax.swing.table.DefaultTableModel;
-import net.proteanit.sql.DbUtils;
+import javax.swing.table.TableModel;
+import service.DomainEvent;
+import service.ReturnResult;
+import service.ReturnService;
+import util.BackgroundLoader;
+import util.EventBus;
+import util.UIUtils;
 
 /**
  *
  * @author ASUS
  */
-public class Pengembalian extends javax.swing.JFrame {
+public class Pengembalian extends javax.swing.JFrame implements Navigator.Refreshable {
 
     /**
      * Creates new form Pengembalian
@@ -41,6 +47,14 @@ public class Pengembalian extends javax.swing.JFrame {
         //Selesaitb.setEditable(false);
         Terlambattxt.setText("0");
         Dendatxt.setText("0");
+        EventBus bus = EventBus.getInstance();
+        subscriptions.add(bus.subscribe(DomainEvent.RentalCreated.class, this::rentalBaru));
+        subscriptions.add(bus.subscribe(DomainEvent.RentalReturned.class, this::rentalKembali));
+        subscriptions.add(bus.subscribe(DomainEvent.TableEdited.class, event -> {
+            if (event.getTable().equals("rental")) {
+                muatUlangRentalan();
+            }
+        }));
     }
 
     /**
@@ -49,9 +63,11 @@ public class Pengembalian extends javax.swing.JFrame {
      * regenerated by the Form Editor.
      */
     
-    Connection Con = null;
-    Statement  St = null;
     ResultSet Rs = null;
+    private final List<EventBus.Subscription> subscriptions = new ArrayList<>();
+    // Changes that arrived while hidden and could not be applied row by row
+    private boolean rentalanBasi;
+    private boolean selesaiBasi;
     
 private void clear(){
         IDReturntxt.setText("");
@@ -66,58 +82,88 @@ private void clear(){
         RKembalitxt.setText("");
     }
     
-    private void updatekostum(){
-        try{
-        Con = DriverManager.getConnection("jdbc:mysql://localhost/rental_cosplay","root","");
-        //String statusKostum = "Tersedia";
-        String query = "update kostum set Stok = Stok+ " + Jumlahtxt.getText() + " where IDKostum= " + IDKtxt.getText();
-        Statement Add = Con.createStatement();
-        Add.executeUpdate(query);
-
-        //JOptionPane.showMessageDialog(this, "Kostum Berhasil Diupdate");
-        } catch (Exception e){
-            e.printStackTrace();
+    private void rentalBaru(DomainEvent.RentalCreated event){
+        if (Booktb.getModel() instanceof KeysetTableModel) {
+            ((KeysetTableModel) Booktb.getModel()).putRow(UIUtils.rentalRow(event.getRental()));
+        } else {
+            muatUlangRentalan();
+        }
+    }
+    
+    /**
+     * Move a processed return from the rental table to the history table without reloading either
+     */
+    private void rentalKembali(DomainEvent.RentalReturned event){
+        ReturnResult hasil = event.getResult();
+        if (Booktb.getModel() instanceof KeysetTableModel) {
+            // Falls back to refreshing the model if the row is not in a loaded page
+            ((KeysetTableModel) Booktb.getModel()).removeRowWithKey(hasil.getRentalId());
+        } else {
+            muatUlangRentalan();
         }
+        if (Selesaitb.getModel() instanceof KeysetTableModel) {
+            ((KeysetTableModel) Selesaitb.getModel()).putRow(new Object[] {
+                hasil.getReturnId(), hasil.getCostumeId(), hasil.getCustomerName(), hasil.getCostumeName(),
+                hasil.getQuantity(), hasil.getDaysLate(), hasil.getLateFee(), hasil.getFinePayment(),
+                hasil.getReturnShipping(), hasil.getReturnTracking() });
+        } else if (isShowing()) {
+            TampilkanSelesai();
+        } else {
+            selesaiBasi = true;
         }
+    }
     
-    //int ID;
+    /**
+     * Screen shown again by the Navigator. Changes from other screens were applied as they
+     * happened; only reload the tables where one of them could not be.
+     */
+    @Override
+    public void onShown() {
+        if (rentalanBasi) {
+            rentalanBasi = false;
+            TampilkanRentalan();
+        }
+        if (selesaiBasi) {
+            selesaiBasi = false;
+            TampilkanSelesai();
+        }
+    }
     
-    private void HapusRentalan(){
-    try{
-        Con = DriverManager.getConnection("jdbc:mysql://localhost/rental_cosplay","root","");
-        String query = "Delete from rental where IDrent = " + IDRtxt.getText();
-        Statement Add = Con.createStatement();
-        Add.executeUpdate(query);
-        TampilkanRentalan();
-        //JOptionPane.showMessageDialog(this, "Kostum Berhasil Dikembalikan dan terhapus dari daftar kostum yang direntalkan");
-        } catch (Exception e){
-            e.printStackTrace();
+    /**
+     * Reload the rental table now if the screen is visible, otherwise when it is shown next
+     */
+    private void muatUlangRentalan(){
+        if (isShowing()) {
+            TampilkanRentalan();
+        } else {
+            rentalanBasi = true;
         }
-           
-        
     }
     
     private void TampilkanRentalan(){
-    try{
-    
-    Con = DriverManager.getConnection("jdbc:mysql://localhost/rental_cosplay","root","");
-    St = Con.createStatement();
-    Rs = St.executeQuery("select IDRent as 'ID Rent', IDKostum as 'ID Kostum', NamaPelanggan as 'Nama Pelanggan', NamaKarakter as 'Nama Karakter', Jumlah, TanggalPeminjaman as 'Tanggal Peminjaman', TanggalPengembalian as 'Batas Waktu', BiayaRental as 'Biaya Rental', Ekspedisi, Resi  from rental");
-    Booktb.setModel(DbUtils.resultSetToTableModel(Rs));
-    }catch(SQLException e){
-        e.printStackTrace();
-    }}
+        // Paged by IDRent so the screen opens without reading the whole rental table
+        BackgroundLoader.getInstance().load(this, "rental", () -> new KeysetTableModel("rental", "IDRent",
+            new String[] { "IDRent", "IDKostum", "NamaPelanggan", "NamaKarakter", "Jumlah", "TanggalPeminjaman", "TanggalPengembalian", "BiayaRental", "Ekspedisi", "Resi" },
+            new String[] { "ID Rent", "ID Kostum", "Nama Pelanggan", "Nama Karakter", "Jumlah", "Tanggal Peminjaman", "Batas Waktu", "Biaya Rental", "Ekspedisi", "Resi" }).open(),
+            Booktb::setModel);
+    }
     
     private void TampilkanSelesai(){
-    try{
-    
-    Con = DriverManager.getConnection("jdbc:mysql://localhost/rental_cosplay","root","");
-    St = Con.createStatement();
-    Rs = St.executeQuery("select IDPengembalian as 'ID Return', IDKostum as 'ID Kostum', NamaPelanggan as 'Nama Pelanggan', NamaKarakter as 'Nama Karakter', Jumlah, Keterlambatan, Denda, PembayaranDenda as 'Pembayaran Denda', EkspedisiPengembalian as 'Ekspedisi Pengembalian', ResiPengembalian as 'Resi Pengembalian' from pengembalian");
-    Selesaitb.setModel(DbUtils.resultSetToTableModel(Rs));
-    }catch(SQLException e){
-        e.printStackTrace();
-    }}    
+        // Return history grows without bound; page it by IDPengembalian
+        BackgroundLoader.getInstance().load(this, "pengembalian", () -> new KeysetTableModel("pengembalian", "IDPengembalian",
+            new String[] { "IDPengembalian", "IDKostum", "NamaPelanggan", "NamaKarakter", "Jumlah", "Keterlambatan", "Denda", "PembayaranDenda", "EkspedisiPengembalian", "ResiPengembalian" },
+            new String[] { "ID Return", "ID Kostum", "Nama Pelanggan", "Nama Karakter", "Jumlah", "Keterlambatan", "Denda", "Pembayaran Denda", "Ekspedisi Pengembalian", "Resi Pengembalian" }).open(),
+            Selesaitb::setModel);
+    }
+
+    @Override
+    public void dispose() {
+        // Drop results of loads that would otherwise land on a closed screen
+        BackgroundLoader.getInstance().cancelAll(this);
+        subscriptions.forEach(EventBus.Subscription::cancel);
+        subscriptions.clear();
+        super.dispose();
+    }
     
     @SuppressWarnings("unchecked")
     // <editor-fold defaultstate="collapsed" desc="Generated Code">//GEN-BEGIN:initComponents
@@ -595,37 +641,24 @@ private void clear(){
     
     private void ReturnbtnActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_ReturnbtnActionPerformed
         // TODO add your handling code here:
-        if (IDKtxt.getText().isEmpty() || NamaKtxt.getText().isEmpty() || NamaPtxt.getText().isEmpty()){
+        if (IDRtxt.getText().isEmpty() || IDKtxt.getText().isEmpty() || NamaKtxt.getText().isEmpty() || NamaPtxt.getText().isEmpty()){
             JOptionPane.showMessageDialog(this, "Data yang Dimasukkan Tidak Lengkap");
         }else{
 
             try{
-                //tglkembali = TanggalKembalitxt.getDate();
-                //tglkmbl = new java.sql.Date(tglkembali.getTime());
-
-                Con = DriverManager.getConnection("jdbc:mysql://localhost/rental_cosplay","root","");
-                PreparedStatement add = Con.prepareStatement("insert into pengembalian (IDKostum, NamaKarakter, NamaPelanggan, Keterlambatan, Denda, PembayaranDenda, EkspedisiPengembalian, ResiPengembalian, Jumlah) values(?,?,?,?,?,?,?,?,?)");
-                add.setInt(1,Integer.parseInt(IDKtxt.getText()));
-                add.setString(2, NamaKtxt.getText());
-                add.setString(3,NamaPtxt.getText());
-                add.setInt(4,Integer.parseInt(Terlambattxt.getText()));
-                //add.setDate(4, tglkmbl);
-                //add.setInt(4, Integer.valueOf(Terlambattxt.getText()));
-                //add.setInt(5 , denda);
-                add.setInt(5,Integer.parseInt(Dendatxt.getText()));
-                add.setString(6, PDendatxt.getSelectedItem().toString());
-                add.setString(7, EKembalitxt.getSelectedItem().toString());
-                add.setString(8, RKembalitxt.getText());
-                add.setInt(9, Integer.parseInt(Jumlahtxt.getText()));
-                
-                int row = add.executeUpdate();
-                JOptionPane.showMessageDialog(this, "Kostum Telah Berhasil Dikembalikan");
+                // Late fee is calculated from the rental's due date; history insert, stock and
+                // rental delete are written in one transaction
+                ReturnResult hasil = ReturnService.getInstance().processReturn(Integer.parseInt(IDRtxt.getText()),
+                    PDendatxt.getSelectedItem().toString(), EKembalitxt.getSelectedItem().toString(), RKembalitxt.getText());
+                if (hasil == null) {
+                    JOptionPane.showMessageDialog(this, "Kostum Gagal Dikembalikan");
+                    return;
+                }
                 
-                TampilkanSelesai();
-                updatekostum();
-                HapusRentalan();
-                TampilkanRentalan();
+                // Both tables are updated from the RentalReturned event
                 clear();
+                JOptionPane.showMessageDialog(this, "Kostum Telah Berhasil Dikembalikan\n"
+                    + "Keterlambatan: " + hasil.getDaysLate() + " hari, Denda: " + UIUtils.formatCurrency(hasil.getLateFee()));
             } catch (Exception e){
                 e.printStackTrace();
             }
@@ -645,8 +678,11 @@ private void clear(){
     
     private void BooktbMouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_BooktbMouseClicked
         // TODO add your handling code here:
-        DefaultTableModel model = (DefaultTableModel)Booktb.getModel();
+        TableModel model = Booktb.getModel();
         int Index = Booktb.getSelectedRow();
+        if (!KeysetTableModel.isRowLoaded(Booktb, Index)) {
+            return;
+        }
         IDRtxt.setText(model.getValueAt(Index, 0).toString());
         IDKtxt.setText(model.getValueAt(Index, 1).toString());
         NamaPtxt.setText(model.getValueAt(Index, 2).toString());
@@ -657,8 +693,11 @@ private void clear(){
 
     private void SelesaitbMouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_SelesaitbMouseClicked
         // TODO add your handling code here:
-        DefaultTableModel model = (DefaultTableModel)Selesaitb.getModel();
+        TableModel model = Selesaitb.getModel();
         int Index = Selesaitb.getSelectedRow();
+        if (!KeysetTableModel.isRowLoaded(Selesaitb, Index)) {
+            return;
+        }
         IDReturntxt.setText(model.getValueAt(Index, 0).toString());
         IDKtxt.setText(model.getValueAt(Index, 1).toString());
         NamaPtxt.setText(model.getValueAt(Index, 2).toString());
@@ -679,26 +718,22 @@ private void clear(){
 
     private void jLabel8MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jLabel8MouseClicked
         // TODO add your handling code here:
-        new Pelanggan().setVisible(true);
-        this.dispose();
+        Navigator.getInstance().show(this, Pelanggan.class, Pelanggan::new);
     }//GEN-LAST:event_jLabel8MouseClicked
 
     private void jLabel9MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jLabel9MouseClicked
         // TODO add your handling code here:
-        new Costume().setVisible(true);
-        this.dispose();
+        Navigator.getInstance().show(this, Costume.class, Costume::new);
     }//GEN-LAST:event_jLabel9MouseClicked
 
     private void jLabel10MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jLabel10MouseClicked
         // TODO add your handling code here:
-        new SewaKostum().setVisible(true);
-        this.dispose();
+        Navigator.getInstance().show(this, SewaKostum.class, SewaKostum::new);
     }//GEN-LAST:event_jLabel10MouseClicked
 
     private void jLabel11MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jLabel11MouseClicked
         // TODO add your handling code here:
-        new Login().setVisible(true);
-        this.dispose();
+        Navigator.getInstance().logout(this);
     }//GEN-LAST:event_jLabel11MouseClicked
 
     private void IDKtxtActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_IDKtxtActionPerformed
@@ -719,18 +754,31 @@ private void clear(){
             JOptionPane.showMessageDialog(this, "Pilih Data yang ingin diubah");
         }else{
         
+        Connection conn = null;
+        PreparedStatement pstmt = null;
         try{
-        Con = DriverManager.getConnection("jdbc:mysql://localhost/rental_cosplay","root","");
-        String ID = IDReturntxt.getText();
-        String query = "Update pengembalian set NamaKarakter= '" + NamaKtxt.getText() + "', NamaPelanggan='" + NamaPtxt.getText()+ "', Keterlambatan= " + Terlambattxt.getText()+ ", Denda= " + Dendatxt.getText()+ ", PembayaranDenda= '" + PDendatxt.getSelectedItem().toString() + "', EkspedisiPengembalian= '" + EKembalitxt.getSelectedItem().toString() + "', ResiPengembalian= '" + RKembalitxt.getText()+ "', Jumlah = " + Jumlahtxt.getText() + " where IDPengembalian= '" + ID + "'";
-        Statement Add = Con.createStatement();
-        Add.executeUpdate(query);
+        conn = DatabaseManager.getInstance().getConnection();
+        String query = "Update pengembalian set NamaKarakter = ?, NamaPelanggan = ?, Keterlambatan = ?, Denda = ?, PembayaranDenda = ?, " +
+                       "EkspedisiPengembalian = ?, ResiPengembalian = ?, Jumlah = ? where IDPengembalian = ?";
+        pstmt = conn.prepareStatement(query);
+        pstmt.setString(1, NamaKtxt.getText());
+        pstmt.setString(2, NamaPtxt.getText());
+        pstmt.setInt(3, Integer.parseInt(Terlambattxt.getText()));
+        pstmt.setBigDecimal(4, new BigDecimal(Dendatxt.getText()));
+        pstmt.setString(5, PDendatxt.getSelectedItem().toString());
+        pstmt.setString(6, EKembalitxt.getSelectedItem().toString());
+        pstmt.setString(7, RKembalitxt.getText());
+        pstmt.setInt(8, Integer.parseInt(Jumlahtxt.getText()));
+        pstmt.setInt(9, Integer.parseInt(IDReturntxt.getText()));
+        pstmt.executeUpdate();
         TampilkanSelesai();
         
         clear();
         JOptionPane.showMessageDialog(this, "Kostum Berhasil Diubah");
         } catch (Exception e){
             e.printStackTrace();
+        } finally {
+            DatabaseManager.closeResources(conn, pstmt, null);
         }
         }
         
@@ -5,22 +5,31 @@
 package code;
 
 import java.awt.Toolkit;
+import java.math.BigDecimal;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import javax.swing.JOptionPane;
 import javax.swing.table.DefaultTableModel;
-import net.proteanit.sql.DbUtils;
+import javax.swing.table.TableModel;
+import model.Rental;
+import service.AvailabilityCalendar;
+import service.CostumeService;
+import service.DomainEvent;
+import service.RentalService;
+import util.BackgroundLoader;
+import util.EventBus;
+import util.UIUtils;
 
 /**
  *
  * @author ASUS
  */
-public class SewaKostum extends javax.swing.JFrame {
+public class SewaKostum extends javax.swing.JFrame implements Navigator.Refreshable {
 
     /**
      * Creates new form SewaKostum
@@ -34,6 +43,12 @@ public class SewaKostum extends javax.swing.JFrame {
         TampilkanKostum();
         getPelanggan();
         TampilkanRentalan();
+        EventBus bus = EventBus.getInstance();
+        subscriptions.add(bus.subscribe(DomainEvent.CostumeChanged.class, this::kostumBerubah));
+        subscriptions.add(bus.subscribe(DomainEvent.CostumesImported.class, event -> muatUlangKostum()));
+        subscriptions.add(bus.subscribe(DomainEvent.RentalCreated.class, this::rentalBaru));
+        subscriptions.add(bus.subscribe(DomainEvent.RentalReturned.class, this::rentalKembali));
+        subscriptions.add(bus.subscribe(DomainEvent.CustomerChanged.class, event -> muatUlangPelanggan()));
         IDRtxt.setEditable(false);
         IDKtxt.setEditable(false);
         NamaKtxt.setEditable(false);
@@ -48,50 +63,148 @@ public class SewaKostum extends javax.swing.JFrame {
      * regenerated by the Form Editor.
      */
     
-    Connection Con = null;
-    Statement  St = null;
     ResultSet Rs = null;
+    private final List<EventBus.Subscription> subscriptions = new ArrayList<>();
+    // Changes that arrived while hidden and could not be applied row by row
+    private boolean kostumBasi;
+    private boolean pelangganBasi;
+    private boolean rentalanBasi;
     
-    private void TampilkanKostum(){
-    try{
-    String StatusKostum = "0";
-    Con = DriverManager.getConnection("jdbc:mysql://localhost/rental_cosplay","root","");
-    St = Con.createStatement();
-    Rs = St.executeQuery("select IDKostum as 'ID Kostum', NamaKarakter as 'Nama Karakter', AsalKarakter as 'Asal Karakter', Ukuran, Stok, Harga from Kostum where Stok != " +StatusKostum);
-    Kostumtb.setModel(DbUtils.resultSetToTableModel(Rs));
+    /**
+     * Screen shown again by the Navigator. Changes from other screens were applied as they
+     * happened; only reload the lists where one of them could not be.
+     */
+    @Override
+    public void onShown() {
+        if (kostumBasi) {
+            kostumBasi = false;
+            TampilkanKostum();
+        }
+        if (pelangganBasi) {
+            pelangganBasi = false;
+            getPelanggan();
+        }
+        if (rentalanBasi) {
+            rentalanBasi = false;
+            TampilkanRentalan();
+        }
+    }
     
-    }catch(SQLException e){
-        e.printStackTrace();
-    }}
-    private void TampilkanRentalan(){
-    try{
+    /**
+     * Reload the costume list now if the screen is visible, otherwise when it is shown next
+     */
+    private void muatUlangKostum(){
+        if (isShowing()) {
+            TampilkanKostum();
+        } else {
+            kostumBasi = true;
+        }
+    }
     
-    Con = DriverManager.getConnection("jdbc:mysql://localhost/rental_cosplay","root","");
-    St = Con.createStatement();
-    Rs = St.executeQuery("select IDRent as 'ID Rent', IDKostum as 'ID Kostum', NamaPelanggan as 'Nama Pelanggan', NamaKarakter as 'Nama Karakter', Jumlah, TanggalPeminjaman as 'Tanggal Peminjaman', TanggalPengembalian as 'Batas Waktu', BiayaRental as 'Total Biaya', Ekspedisi, Resi  from rental");
-    Booktb.setModel(DbUtils.resultSetToTableModel(Rs));
-
-    }catch(SQLException e){
-        e.printStackTrace();
-    }}
+    private void muatUlangPelanggan(){
+        if (isShowing()) {
+            getPelanggan();
+        } else {
+            pelangganBasi = true;
+        }
+    }
+    
+    private void muatUlangRentalan(){
+        if (isShowing()) {
+            TampilkanRentalan();
+        } else {
+            rentalanBasi = true;
+        }
+    }
+    
+    private void TampilkanKostum(){
+        // Only costumes still in stock can be rented; served from the catalog cache
+        BackgroundLoader.getInstance().load(this, "kostum", () -> {
+            List<model.Costume> tersedia = new ArrayList<>();
+            for (model.Costume kostum : CostumeService.getInstance().getAllCostumes()) {
+                if (kostum.getStock() != 0) {
+                    tersedia.add(kostum);
+                }
+            }
+            return UIUtils.createCostumeTableModel(tersedia);
+        }, Kostumtb::setModel);
+    }
+    private void TampilkanRentalan(){
+        // Paged by IDRent so the screen opens without reading the whole rental table
+        BackgroundLoader.getInstance().load(this, "rental", () -> new KeysetTableModel("rental", "IDRent",
+            new String[] { "IDRent", "IDKostum", "NamaPelanggan", "NamaKarakter", "Jumlah", "TanggalPeminjaman", "TanggalPengembalian", "BiayaRental", "Ekspedisi", "Resi" },
+            new String[] { "ID Rent", "ID Kostum", "Nama Pelanggan", "Nama Karakter", "Jumlah", "Tanggal Peminjaman", "Batas Waktu", "Total Biaya", "Ekspedisi", "Resi" }).open(),
+            Booktb::setModel);
+    }
     
     private void getPelanggan(){
-    try{
-    Con = DriverManager.getConnection("jdbc:mysql://localhost/rental_cosplay","root","");
-    St = Con.createStatement();
-    String query = "select * from pelanggan";
-    Rs = St.executeQuery(query);
-    while (Rs.next()){
-        String Pelanggan = Rs.getString("NamaPelanggan");
-        NamaPtxt.addItem(Pelanggan);
-        
-        
+        BackgroundLoader.getInstance().load(this, "pelanggan", () -> {
+            List<String> nama = new ArrayList<>();
+            Connection conn = null;
+            PreparedStatement pstmt = null;
+            ResultSet rs = null;
+            try {
+                conn = DatabaseManager.getInstance().getConnection();
+                pstmt = conn.prepareStatement("select NamaPelanggan from pelanggan");
+                rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    nama.add(rs.getString("NamaPelanggan"));
+                }
+            } finally {
+                DatabaseManager.closeResources(conn, pstmt, rs);
+            }
+            return nama;
+        }, nama -> {
+            NamaPtxt.removeAllItems();
+            for (String Pelanggan : nama) {
+                NamaPtxt.addItem(Pelanggan);
+            }
+        });
     }
-        
-    }catch(Exception e){
-        e.printStackTrace();
+    
+    /**
+     * Keep the rentable costume list in step with saves, deletions and stock changes.
+     * Costumes that run out of stock leave the list; restocked ones come back.
+     */
+    private void kostumBerubah(DomainEvent.CostumeChanged event){
+        if (BackgroundLoader.getInstance().isLoading(this) || !(Kostumtb.getModel() instanceof DefaultTableModel)) {
+            // A load in flight may have read the catalog before this change; read it again
+            muatUlangKostum();
+            return;
+        }
+        DefaultTableModel kostumModel = (DefaultTableModel) Kostumtb.getModel();
+        if (event.getKind() == DomainEvent.CostumeChanged.Kind.DELETED || event.getStock() == 0) {
+            UIUtils.removeRowById(kostumModel, event.getCostumeId());
+        } else if (event.getCostume() != null) {
+            UIUtils.putCostumeRow(kostumModel, event.getCostume());
+        } else if (!UIUtils.setCostumeStock(kostumModel, event.getCostumeId(), event.getStock())) {
+            muatUlangKostum();
+        }
     }
     
+    private void rentalBaru(DomainEvent.RentalCreated event){
+        if (Booktb.getModel() instanceof KeysetTableModel) {
+            ((KeysetTableModel) Booktb.getModel()).putRow(UIUtils.rentalRow(event.getRental()));
+        } else {
+            muatUlangRentalan();
+        }
+    }
+    
+    private void rentalKembali(DomainEvent.RentalReturned event){
+        if (Booktb.getModel() instanceof KeysetTableModel) {
+            ((KeysetTableModel) Booktb.getModel()).removeRowWithKey(event.getResult().getRentalId());
+        } else {
+            muatUlangRentalan();
+        }
+    }
+    
+    @Override
+    public void dispose() {
+        // Drop results of loads that would otherwise land on a closed screen
+        BackgroundLoader.getInstance().cancelAll(this);
+        subscriptions.forEach(EventBus.Subscription::cancel);
+        subscriptions.clear();
+        super.dispose();
     }
     
     @SuppressWarnings("unchecked")
@@ -655,8 +768,11 @@ public class SewaKostum extends javax.swing.JFrame {
 
     private void BooktbMouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_BooktbMouseClicked
         // TODO add your handling code here:
-        DefaultTableModel model = (DefaultTableModel)Booktb.getModel();
+        TableModel model = Booktb.getModel();
         int Index = Booktb.getSelectedRow();
+        if (!KeysetTableModel.isRowLoaded(Booktb, Index)) {
+            return;
+        }
         IDRtxt.setText(model.getValueAt(Index, 0).toString());
         IDKtxt.setText(model.getValueAt(Index, 1).toString());
         NamaPtxt.setSelectedItem(model.getValueAt(Index, 2).toString());
@@ -700,21 +816,6 @@ public class SewaKostum extends javax.swing.JFrame {
         
     }//GEN-LAST:event_CetakbtnActionPerformed
     
-    private void updatekostum(){
-        try{
-        Con = DriverManager.getConnection("jdbc:mysql://localhost/rental_cosplay","root","");
-        //String statusKostum = "Stok-Jumlah";
-        String query = "update kostum set Stok = Stok - " + Jumlahtxt.getText() + " where IDKostum= " + IDKtxt.getText();
-        Statement Add = Con.createStatement();
-        Add.executeUpdate(query);
-        TampilkanKostum();
-        clear();
-        JOptionPane.showMessageDialog(this, "Kostum Berhasil Diupdate");
-        } catch (Exception e){
-            e.printStackTrace();
-        }
-        }
-
         
     
     
@@ -737,22 +838,25 @@ public class SewaKostum extends javax.swing.JFrame {
             int total;
             total = (Integer.parseInt(Jumlahtxt.getText())*Integer.parseInt(HargaRtxt.getText()) + Integer.parseInt(BiayaRtxt.getText()));
             
-            Con = DriverManager.getConnection("jdbc:mysql://localhost/rental_cosplay","root","");
-            PreparedStatement add = Con.prepareStatement("insert into rental (IDKostum, NamaKarakter, NamaPelanggan, TanggalPeminjaman, TanggalPengembalian, BiayaRental, Ekspedisi, Resi, Jumlah) values(?,?,?,?,?,?,?,?,?)");
-            add.setInt(1, Integer.parseInt(IDKtxt.getText()));
-            add.setString(2, NamaKtxt.getText());
-            add.setString(3, NamaPtxt.getSelectedItem().toString());
-            add.setDate(4, tglpnjm);
-            add.setDate(5, tglkmbl);
-            add.setInt(6, total);
-            add.setString(7, Ekspedisitxt.getSelectedItem().toString());
-            add.setString(8, NoResitxt.getText());
-            add.setInt(9, Integer.parseInt(Jumlahtxt.getText()));
-        int row = add.executeUpdate();
-        JOptionPane.showMessageDialog(this, "Kostum Berhasil Direntalkan");
-        TampilkanRentalan();
-        updatekostum();
-        TampilkanKostum();
+            Rental rental = new Rental();
+            rental.setCostumeId(Integer.parseInt(IDKtxt.getText()));
+            rental.setCostumeName(NamaKtxt.getText());
+            rental.setCustomerName(NamaPtxt.getSelectedItem().toString());
+            rental.setRentalDate(tglpnjm.toLocalDate());
+            rental.setReturnDate(tglkmbl.toLocalDate());
+            rental.setQuantity(Integer.parseInt(Jumlahtxt.getText()));
+            rental.setRentalCost(BigDecimal.valueOf(total));
+            rental.setShippingMethod(Ekspedisitxt.getSelectedItem().toString());
+            rental.setTrackingNumber(NoResitxt.getText());
+            
+            // Rental row and stock decrement are written in one transaction; the tables
+            // pick up the new rental and stock from the change events
+            if (RentalService.getInstance().createRental(rental) < 0) {
+                JOptionPane.showMessageDialog(this, "Kostum Gagal Direntalkan, Periksa Stok Kostum");
+                return;
+            }
+            clear();
+            JOptionPane.showMessageDialog(this, "Kostum Berhasil Direntalkan");
         } catch (Exception e){
             e.printStackTrace();
         }
@@ -768,46 +872,55 @@ public class SewaKostum extends javax.swing.JFrame {
             tglpnjm = new java.sql.Date(tglpinjam.getTime());
             tglkembali = TanggalKembalitxt.getDate();
             tglkmbl = new java.sql.Date(tglkembali.getTime());
+        Connection conn = null;
+        PreparedStatement pstmt = null;
         try{
-            
-
-            
-            Con = DriverManager.getConnection("jdbc:mysql://localhost/rental_cosplay","root","");
-            int ID = Integer.parseInt(IDRtxt.getText());
-            String query = "Update rental set NamaKarakter= '" + NamaKtxt.getText() + "', NamaPelanggan='" + NamaPtxt.getSelectedItem().toString()+ "', TanggalPeminjaman= '" + tglpnjm+"', TanggalPengembalian= '" + tglkmbl + "', BiayaRental= " + Totaltxt.getText() + ", Ekspedisi= '" + Ekspedisitxt.getSelectedItem().toString() + "', Resi= '" + NoResitxt.getText() + "', Jumlah = " + Jumlahtxt.getText() + " where IDRent= '" + ID + "'";
-            Statement Add = Con.createStatement();
-            Add.executeUpdate(query);
+            conn = DatabaseManager.getInstance().getConnection();
+            String query = "Update rental set NamaKarakter = ?, NamaPelanggan = ?, TanggalPeminjaman = ?, TanggalPengembalian = ?, " +
+                           "BiayaRental = ?, Ekspedisi = ?, Resi = ?, Jumlah = ? where IDRent = ?";
+            pstmt = conn.prepareStatement(query);
+            pstmt.setString(1, NamaKtxt.getText());
+            pstmt.setString(2, NamaPtxt.getSelectedItem().toString());
+            pstmt.setDate(3, tglpnjm);
+            pstmt.setDate(4, tglkmbl);
+            pstmt.setBigDecimal(5, new BigDecimal(Totaltxt.getText()));
+            pstmt.setString(6, Ekspedisitxt.getSelectedItem().toString());
+            pstmt.setString(7, NoResitxt.getText());
+            pstmt.setInt(8, Integer.parseInt(Jumlahtxt.getText()));
+            pstmt.setInt(9, Integer.parseInt(IDRtxt.getText()));
+            pstmt.executeUpdate();
             TampilkanRentalan();
+            // Written directly, not through RentalService; let the other screens know
+            EventBus.getInstance().publish(new DomainEvent.TableEdited("rental"));
+            AvailabilityCalendar.getInstance().invalidate();
             clear();
             JOptionPane.showMessageDialog(this, "Rentalan Berhasil Diubah");
         } catch (Exception e){
             e.printStackTrace();
+        } finally {
+            DatabaseManager.closeResources(conn, pstmt, null);
         }
         }
     }//GEN-LAST:event_EditbtnActionPerformed
 
     private void jLabel8MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jLabel8MouseClicked
         // TODO add your handling code here:
-        new Pelanggan().setVisible(true);
-        this.dispose();
+        Navigator.getInstance().show(this, Pelanggan.class, Pelanggan::new);
     }//GEN-LAST:event_jLabel8MouseClicked
 
     private void jLabel9MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jLabel9MouseClicked
         // TODO add your handling code here:
-        new Costume().setVisible(true);
-        this.dispose();
+        Navigator.getInstance().show(this, Costume.class, Costume::new);
     }//GEN-LAST:event_jLabel9MouseClicked
 
     private void jLabel10MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jLabel10MouseClicked
         // TODO add your handling code here:
-        new Pengembalian().setVisible(true);
-        this.dispose();
+        Navigator.getInstance().show(this, Pengembalian.class, Pengembalian::new);
     }//GEN-LAST:event_jLabel10MouseClicked
 
     private void jLabel11MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jLabel11MouseClicked
         // TODO add your handling code here:
-        new Login().setVisible(true);
-        this.dispose();
+        Navigator.getInstance().logout(this);
     }//GEN-LAST:event_jLabel11MouseClicked
 
     private void NoResitxtActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_NoResitxtActionPerformed
@@ -0,0 +1,150 @@
+package code;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import util.AppConstants;
+
+/**
+ * Row-at-a-time reads for results too large to hold in memory (exports, reports).
+ * On MySQL the driver streams rows from the server as they are consumed instead
+ * of buffering the whole result; on H2 it fetches in batches of
+ * AppConstants.Database.STREAM_FETCH_SIZE. Either way heap use does not grow with
+ * the number of rows. The connection and statement are closed when the last row
+ * has been handled or the handler throws.
+ *
+ * While a MySQL stream is open its connection can run nothing else, so the
+ * handler must not issue queries expecting to share it; other pooled connections
+ * are fine.
+ */
+public final class StreamingQuery {
+
+    /**
+     * Receives each row in turn
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+        void handle(Row row) throws SQLException;
+    }
+
+    private StreamingQuery() {}
+
+    /**
+     * Run a query and pass every row to the handler
+     * @param params values for the ? placeholders, in order
+     * @return number of rows handled
+     */
+    public static long forEach(String query, RowHandler handler, Object... params) throws SQLException {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseManager.getInstance().getConnection();
+            // Created with explicit type and concurrency, so it bypasses the statement cache
+            // and the streaming fetch size never leaks into a reused statement
+            pstmt = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            pstmt.setFetchSize(DatabaseManager.getInstance().getDialect() == DatabaseManager.Dialect.MYSQL
+                ? Integer.MIN_VALUE // Connector/J: stream rows one by one
+                : AppConstants.Database.STREAM_FETCH_SIZE);
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+
+            rs = pstmt.executeQuery();
+            Row row = new Row(rs);
+            while (rs.next()) {
+                row.number++;
+                handler.handle(row);
+            }
+            return row.number;
+        } finally {
+            DatabaseManager.closeResources(conn, pstmt, rs);
+        }
+    }
+
+    /**
+     * View of the current row. The same instance is passed for every row and only
+     * reads the row being handled; copy out any values needed after handle returns.
+     */
+    public static final class Row {
+        private final ResultSet rs;
+        private ResultSetMetaData metaData;
+        private long number;
+
+        private Row(ResultSet rs) {
+            this.rs = rs;
+        }
+
+        /**
+         * 1-based position of this row in the result
+         */
+        public long getRowNumber() {
+            return number;
+        }
+
+        public int getColumnCount() throws SQLException {
+            return metaData().getColumnCount();
+        }
+
+        public String getColumnLabel(int column) throws SQLException {
+            return metaData().getColumnLabel(column);
+        }
+
+        public Object getObject(int column) throws SQLException {
+            return rs.getObject(column);
+        }
+
+        public String getString(int column) throws SQLException {
+            return rs.getString(column);
+        }
+
+        public String getString(String column) throws SQLException {
+            return rs.getString(column);
+        }
+
+        public int getInt(int column) throws SQLException {
+            return rs.getInt(column);
+        }
+
+        public int getInt(String column) throws SQLException {
+            return rs.getInt(column);
+        }
+
+        public long getLong(int column) throws SQLException {
+            return rs.getLong(column);
+        }
+
+        public BigDecimal getBigDecimal(int column) throws SQLException {
+            return rs.getBigDecimal(column);
+        }
+
+        public BigDecimal getBigDecimal(String column) throws SQLException {
+            return rs.getBigDecimal(column);
+        }
+
+        public Date getDate(int column) throws SQLException {
+            return rs.getDate(column);
+        }
+
+        public Date getDate(String column) throws SQLException {
+            return rs.getDate(column);
+        }
+
+        public Timestamp getTimestamp(int column) throws SQLException {
+            return rs.getTimestamp(column);
+        }
+
+        private ResultSetMetaData metaData() throws SQLException {
+            if (metaData == null) {
+                metaData = rs.getMetaData();
+            }
+            return metaData;
+        }
+    }
+}
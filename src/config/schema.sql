@@ -0,0 +1,69 @@
+-- Rental Cosplay schema. Runs on MySQL and on H2 in MySQL mode; every statement
+-- is safe to run against an existing database.
+
+CREATE TABLE IF NOT EXISTS kostum (
+    IDKostum INT NOT NULL AUTO_INCREMENT,
+    NamaKarakter VARCHAR(100) NOT NULL,
+    AsalKarakter VARCHAR(100) NOT NULL,
+    Ukuran VARCHAR(10) NOT NULL,
+    Stok INT NOT NULL DEFAULT 0,
+    Harga DECIMAL(12,2) NOT NULL,
+    PRIMARY KEY (IDKostum),
+    -- Serves name-ordered listing and the keyset page seek (NamaKarakter, IDKostum) > (?, ?)
+    INDEX idx_kostum_nama (NamaKarakter, IDKostum)
+);
+
+CREATE TABLE IF NOT EXISTS pelanggan (
+    IDPelanggan INT NOT NULL AUTO_INCREMENT,
+    NamaPelanggan VARCHAR(100) NOT NULL,
+    Alamat VARCHAR(255) NOT NULL,
+    AkunInstagram VARCHAR(100) NOT NULL,
+    NomorHP VARCHAR(20) NOT NULL,
+    PRIMARY KEY (IDPelanggan)
+);
+
+CREATE TABLE IF NOT EXISTS rental (
+    IDRent INT NOT NULL AUTO_INCREMENT,
+    IDKostum INT NOT NULL,
+    NamaKarakter VARCHAR(100) NOT NULL,
+    NamaPelanggan VARCHAR(100) NOT NULL,
+    TanggalPeminjaman DATE NOT NULL,
+    TanggalPengembalian DATE NOT NULL,
+    BiayaRental DECIMAL(12,2) NOT NULL,
+    Ekspedisi VARCHAR(50),
+    Resi VARCHAR(50),
+    Jumlah INT NOT NULL DEFAULT 1,
+    PRIMARY KEY (IDRent),
+    INDEX idx_rental_kostum (IDKostum, TanggalPengembalian)
+);
+
+CREATE TABLE IF NOT EXISTS pengembalian (
+    IDPengembalian INT NOT NULL AUTO_INCREMENT,
+    IDKostum INT NOT NULL,
+    NamaKarakter VARCHAR(100) NOT NULL,
+    NamaPelanggan VARCHAR(100) NOT NULL,
+    Keterlambatan INT NOT NULL DEFAULT 0,
+    Denda DECIMAL(12,2) NOT NULL DEFAULT 0,
+    PembayaranDenda VARCHAR(50),
+    EkspedisiPengembalian VARCHAR(50),
+    ResiPengembalian VARCHAR(50),
+    Jumlah INT NOT NULL DEFAULT 1,
+    PRIMARY KEY (IDPengembalian)
+);
+
+-- H2 needs NON_KEYWORDS=USER in the URL for this table name
+CREATE TABLE IF NOT EXISTS user (
+    user_id INT NOT NULL AUTO_INCREMENT,
+    username VARCHAR(50) NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    salt VARCHAR(64) NOT NULL,
+    email VARCHAR(100),
+    full_name VARCHAR(100),
+    role VARCHAR(20) NOT NULL DEFAULT 'USER',
+    is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    last_login TIMESTAMP NULL,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    PRIMARY KEY (user_id),
+    UNIQUE KEY uk_user_username (username)
+);
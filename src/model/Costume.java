@@ -144,6 +144,26 @@ public class Costume {
         this.updatedAt = updatedAt;
     }
     
+    /**
+     * Create an independent copy of this costume
+     */
+    public Costume copy() {
+        Costume copy = new Costume();
+        copy.costumeId = costumeId;
+        copy.characterName = characterName;
+        copy.characterOrigin = characterOrigin;
+        copy.size = size;
+        copy.stock = stock;
+        copy.availableStock = availableStock;
+        copy.price = price;
+        copy.status = status;
+        copy.description = description;
+        copy.imageUrl = imageUrl;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        return copy;
+    }
+    
     // Business Methods
     public boolean isAvailable() {
         return status == CostumeStatus.AVAILABLE && availableStock > 0;
@@ -224,6 +244,23 @@ public class Costume {
             return displayName;
         }
         
+        /**
+         * Code as stored in the Ukuran column (e.g. "ALL SIZE")
+         */
+        public String getCode() {
+            return name().replace('_', ' ');
+        }
+        
+        /**
+         * Parse a size code from the database or UI, accepting "ALL SIZE" and "ALL_SIZE"
+         */
+        public static Size fromCode(String code) {
+            if (code == null) {
+                throw new IllegalArgumentException("Size code is null");
+            }
+            return valueOf(code.trim().toUpperCase().replace(' ', '_'));
+        }
+        
         @Override
         public String toString() {
             return displayName;
@@ -0,0 +1,319 @@
+package service;
+
+import code.StreamingQuery;
+import model.Costume;
+import util.AppConstants;
+import util.AppLogger;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Availability Calendar - units of each costume out on rent per day, so a date
+ * range can be checked instead of only today's stock.
+ *
+ * Built on first use from the open rentals in the rental table and kept current
+ * by RentalService and ReturnService. Days run from today for
+ * AVAILABILITY_HORIZON_DAYS: overdue rentals count on today, since they are out
+ * until returned, and the last day also counts everything booked past the
+ * horizon, so queries beyond it err on the side of unavailable.
+ *
+ * The rental table is read without holding the calendar's lock; rentals created
+ * or returned meanwhile are queued and applied before the new index is used, so
+ * renting and returning never wait for a load.
+ */
+public class AvailabilityCalendar {
+
+    private static AvailabilityCalendar instance;
+
+    private Index index; // null until loaded
+    private boolean loading;
+    // Changes that arrived while loading, applied to the loaded bookings in order
+    private List<Consumer<Map<Integer, Booking>>> queued = new ArrayList<>();
+    private int generation; // bumped by invalidate, so a load that started before is discarded
+
+    private AvailabilityCalendar() {}
+
+    public static synchronized AvailabilityCalendar getInstance() {
+        if (instance == null) {
+            instance = new AvailabilityCalendar();
+        }
+        return instance;
+    }
+
+    /**
+     * Most units of a costume rented out on any single day from first to last
+     * @return peak usage, or -1 if the range is invalid or the rentals could not be read
+     */
+    public int getMaxConcurrentUsage(int costumeId, LocalDate first, LocalDate last) {
+        if (!isValidRange(first, last) || !ensureLoaded()) {
+            return -1;
+        }
+        synchronized (this) {
+            return index != null ? index.peak(costumeId, first, last) : -1;
+        }
+    }
+
+    /**
+     * Units of a costume free on every day from first to last: the units owned
+     * (in stock plus out on rent) less the busiest day in the range
+     * @return free units, or -1 if the costume is unknown, the range is invalid
+     *         or the rentals could not be read
+     */
+    public int getAvailableQuantity(int costumeId, LocalDate first, LocalDate last) {
+        Costume costume = CostumeService.getInstance().getCostumeById(costumeId);
+        if (costume == null || !isValidRange(first, last) || !ensureLoaded()) {
+            return -1;
+        }
+        synchronized (this) {
+            if (index == null) {
+                return -1;
+            }
+            int owned = costume.getStock() + index.unitsOut(costumeId);
+            return Math.max(0, owned - index.peak(costumeId, first, last));
+        }
+    }
+
+    /**
+     * Whether quantity units of a costume are free from first to last, inclusive
+     */
+    public boolean isAvailable(int costumeId, LocalDate first, LocalDate last, int quantity) {
+        return quantity > 0 && getAvailableQuantity(costumeId, first, last) >= quantity;
+    }
+
+    /**
+     * Drop the index, e.g. after the rental table was changed outside the services;
+     * it is read again on the next query
+     */
+    public synchronized void invalidate() {
+        index = null;
+        generation++;
+    }
+
+    /**
+     * Record a committed rental. Ignored until the index is first loaded, since loading
+     * reads it, and for rentals the index already holds.
+     */
+    synchronized void rentalCreated(int rentalId, int costumeId, LocalDate first, LocalDate last, int quantity) {
+        if (first == null || last == null) {
+            return;
+        }
+        Booking booking = new Booking(costumeId, first.toEpochDay(), last.toEpochDay(), quantity);
+        if (loading) {
+            queued.add(bookings -> bookings.putIfAbsent(rentalId, booking));
+        } else if (index != null) {
+            index.add(rentalId, booking);
+        }
+    }
+
+    /**
+     * Remove a rental that was returned
+     */
+    synchronized void rentalReturned(int rentalId) {
+        if (loading) {
+            queued.add(bookings -> bookings.remove(rentalId));
+        } else if (index != null) {
+            index.remove(rentalId);
+        }
+    }
+
+    /**
+     * Make sure an index for today exists, reading the rental table if there is none.
+     * One caller loads; others wait for it without holding the lock.
+     */
+    private boolean ensureLoaded() {
+        LocalDate today = LocalDate.now();
+        int loadGeneration;
+        synchronized (this) {
+            while (loading) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            if (index != null) {
+                if (!index.origin.equals(today)) {
+                    index = new Index(index.bookings, today);
+                }
+                return true;
+            }
+            loading = true;
+            loadGeneration = generation;
+        }
+
+        Map<Integer, Booking> bookings = null;
+        try {
+            bookings = readBookings();
+        } finally {
+            synchronized (this) {
+                if (bookings != null && loadGeneration == generation) {
+                    for (Consumer<Map<Integer, Booking>> change : queued) {
+                        change.accept(bookings);
+                    }
+                    index = new Index(bookings, today);
+                }
+                queued = new ArrayList<>();
+                loading = false;
+                notifyAll();
+            }
+        }
+        return bookings != null;
+    }
+
+    /**
+     * Open rentals by IDRent, or null if they could not be read
+     */
+    private Map<Integer, Booking> readBookings() {
+        long start = System.currentTimeMillis();
+        Map<Integer, Booking> bookings = new HashMap<>();
+        String query = "SELECT IDRent, IDKostum, TanggalPeminjaman, TanggalPengembalian, Jumlah FROM " +
+                      AppConstants.Database.TABLE_RENTAL;
+        try {
+            StreamingQuery.forEach(query, row -> {
+                Date first = row.getDate(3);
+                Date last = row.getDate(4);
+                if (first != null && last != null) {
+                    bookings.put(row.getInt(1), new Booking(row.getInt(2), first.toLocalDate().toEpochDay(),
+                                                            last.toLocalDate().toEpochDay(), row.getInt(5)));
+                }
+            });
+        } catch (SQLException e) {
+            AppLogger.logDatabaseError("loadAvailability", AppConstants.Database.TABLE_RENTAL, e);
+            AppLogger.logError("Error loading rentals for the availability calendar", e);
+            return null;
+        }
+        AppLogger.logPerformance("Load availability calendar", System.currentTimeMillis() - start);
+        AppLogger.logDebug("Availability calendar holds %d rentals", bookings.size());
+        return bookings;
+    }
+
+    private static boolean isValidRange(LocalDate first, LocalDate last) {
+        if (first == null || last == null || last.isBefore(first)) {
+            AppLogger.logWarning("Invalid availability range: %s to %s", first, last);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Per-costume usage trees for one day 0. Each tree spans only the days its
+     * costume's bookings cover and doubles its span when a booking falls outside,
+     * so an update only touches that costume's tree; costumes with no open rentals
+     * have none.
+     */
+    private static final class Index {
+        final LocalDate origin;
+        // Open rentals by IDRent; days are epoch days so the index can be rebuilt for a new today
+        final Map<Integer, Booking> bookings;
+        private final Map<Integer, DayUsageTree> usage = new HashMap<>();
+        private final Map<Integer, Integer> unitsOut = new HashMap<>();
+
+        Index(Map<Integer, Booking> bookings, LocalDate origin) {
+            this.origin = origin;
+            this.bookings = bookings;
+
+            Map<Integer, int[]> spans = new HashMap<>();
+            for (Booking booking : bookings.values()) {
+                unitsOut.merge(booking.costumeId, booking.quantity, Integer::sum);
+                int first = firstBucket(booking);
+                int last = lastBucket(booking);
+                spans.merge(booking.costumeId, new int[] { first, last },
+                            (span, more) -> new int[] { Math.min(span[0], more[0]), Math.max(span[1], more[1]) });
+            }
+            for (Map.Entry<Integer, int[]> span : spans.entrySet()) {
+                int[] days = span.getValue();
+                usage.put(span.getKey(), new DayUsageTree(days[0], days[1] - days[0] + 1));
+            }
+            for (Booking booking : bookings.values()) {
+                usage.get(booking.costumeId).add(firstBucket(booking), lastBucket(booking), booking.quantity);
+            }
+        }
+
+        void add(int rentalId, Booking booking) {
+            if (bookings.putIfAbsent(rentalId, booking) == null) {
+                apply(booking, 1);
+            }
+        }
+
+        void remove(int rentalId) {
+            Booking booking = bookings.remove(rentalId);
+            if (booking != null) {
+                apply(booking, -1);
+            }
+        }
+
+        int peak(int costumeId, LocalDate first, LocalDate last) {
+            DayUsageTree tree = usage.get(costumeId);
+            return tree == null ? 0 : tree.max(bucket(first.toEpochDay()), bucket(last.toEpochDay()));
+        }
+
+        int unitsOut(int costumeId) {
+            return unitsOut.getOrDefault(costumeId, 0);
+        }
+
+        /**
+         * Apply a booking that was just added to or removed from bookings
+         */
+        private void apply(Booking booking, int sign) {
+            Integer out = unitsOut.merge(booking.costumeId, sign * booking.quantity,
+                                         (units, change) -> units + change == 0 ? null : units + change);
+            if (out == null) {
+                usage.remove(booking.costumeId);
+                return;
+            }
+            int first = firstBucket(booking);
+            int last = lastBucket(booking);
+            DayUsageTree tree = usage.get(booking.costumeId);
+            if (tree == null) {
+                // First open rental of this costume
+                tree = new DayUsageTree(first, last - first + 1);
+                usage.put(booking.costumeId, tree);
+            } else if (!tree.covers(first, last)) {
+                tree = tree.widen(first, last);
+                usage.put(booking.costumeId, tree);
+            }
+            tree.add(first, last, sign * booking.quantity);
+        }
+
+        private int firstBucket(Booking booking) {
+            return bucket(booking.firstDay);
+        }
+
+        private int lastBucket(Booking booking) {
+            return bucket(Math.max(booking.firstDay, booking.lastDay));
+        }
+
+        /**
+         * Bucket of an epoch day: days before today fall on today, days past the horizon on its last day
+         */
+        private int bucket(long epochDay) {
+            long offset = epochDay - origin.toEpochDay();
+            return (int) Math.max(0, Math.min(offset, AppConstants.Business.AVAILABILITY_HORIZON_DAYS - 1));
+        }
+    }
+
+    /**
+     * One open rental: quantity units of a costume from firstDay to lastDay, inclusive
+     */
+    private static final class Booking {
+        final int costumeId;
+        final long firstDay;
+        final long lastDay;
+        final int quantity;
+
+        Booking(int costumeId, long firstDay, long lastDay, int quantity) {
+            this.costumeId = costumeId;
+            this.firstDay = firstDay;
+            this.lastDay = lastDay;
+            this.quantity = quantity;
+        }
+    }
+}
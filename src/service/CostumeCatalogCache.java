@@ -0,0 +1,211 @@
+package service;
+
+import model.Costume;
+import util.AppConstants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory catalog of costumes indexed by ID.
+ * Filled by CostumeService on a full load and kept coherent by the service's
+ * write paths. Every write bumps a write stamp; a load takes the stamp before
+ * its query and is dropped if a write happened meanwhile, so a stale row can
+ * never overwrite a newer one. Entries are stored and returned as copies so
+ * callers can never mutate cached state.
+ */
+class CostumeCatalogCache {
+
+    private static final Comparator<Costume> BY_NAME =
+        Comparator.comparing(Costume::getCharacterName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+                  .thenComparingInt(Costume::getCostumeId);
+
+    private final ConcurrentHashMap<Integer, Costume> entries = new ConcurrentHashMap<>();
+    private volatile long ttlMillis = TimeUnit.SECONDS.toMillis(AppConstants.Cache.CATALOG_TTL_SECONDS);
+    private volatile long loadedAt;
+    private volatile List<Costume> sortedView;
+    // Bumped on every write so a sorted view built concurrently with a write is not published
+    private final AtomicLong modCount = new AtomicLong();
+    // Bumped by the write paths only, never by loads
+    private final AtomicLong writes = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Whether the full catalog is loaded and younger than the TTL
+     */
+    boolean isFresh() {
+        long loaded = loadedAt;
+        return loaded != 0 && System.currentTimeMillis() - loaded < ttlMillis;
+    }
+
+    /**
+     * Stamp to take before querying the database for a load
+     */
+    long writeStamp() {
+        return writes.get();
+    }
+
+    /**
+     * Replace the cached catalog with a fresh full load
+     * @param stamp writeStamp() taken before the load's query
+     * @return false if a write happened since the stamp and the load was dropped
+     */
+    synchronized boolean replaceAll(List<Costume> costumes, long stamp) {
+        if (writes.get() != stamp) {
+            return false;
+        }
+        entries.clear();
+        for (Costume costume : costumes) {
+            entries.put(costume.getCostumeId(), costume.copy());
+        }
+        changed();
+        loadedAt = System.currentTimeMillis();
+        loads.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * All cached costumes ordered by character name, or null when the catalog is stale
+     */
+    List<Costume> getAll() {
+        if (!isFresh()) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return copies(sorted());
+    }
+
+    /**
+     * Cached costume by ID, or null when unknown or stale
+     */
+    Costume get(int costumeId) {
+        if (isFresh()) {
+            Costume cached = entries.get(costumeId);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached.copy();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Like get, but not counted in the hit statistics; for internal bookkeeping
+     */
+    Costume peek(int costumeId) {
+        Costume cached = isFresh() ? entries.get(costumeId) : null;
+        return cached != null ? cached.copy() : null;
+    }
+
+    /**
+     * Cache a single costume read from the database, unless a write happened since the stamp
+     */
+    synchronized void load(Costume costume, long stamp) {
+        if (writes.get() == stamp) {
+            entries.put(costume.getCostumeId(), costume.copy());
+            changed();
+        }
+    }
+
+    synchronized void put(Costume costume) {
+        writes.incrementAndGet();
+        entries.put(costume.getCostumeId(), costume.copy());
+        changed();
+    }
+
+    synchronized void remove(int costumeId) {
+        writes.incrementAndGet();
+        if (entries.remove(costumeId) != null) {
+            changed();
+        }
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * Set the stock of a cached costume to a value read from the database
+     */
+    synchronized void setStock(int costumeId, int stock) {
+        writes.incrementAndGet();
+        entries.computeIfPresent(costumeId, (id, cached) -> {
+            Costume updated = cached.copy();
+            updated.setStock(stock);
+            updated.setAvailableStock(stock);
+            return updated;
+        });
+        changed();
+    }
+
+    /**
+     * Drop everything; the next read goes to the database
+     */
+    synchronized void invalidateAll() {
+        writes.incrementAndGet();
+        entries.clear();
+        changed();
+        loadedAt = 0;
+        invalidations.incrementAndGet();
+    }
+
+    void setTtl(long ttl, TimeUnit unit) {
+        this.ttlMillis = unit.toMillis(ttl);
+    }
+
+    long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("entries=%d, hits=%d, misses=%d, loads=%d, invalidations=%d, ttl=%ds",
+                             entries.size(), hits.get(), misses.get(), loads.get(),
+                             invalidations.get(), TimeUnit.MILLISECONDS.toSeconds(ttlMillis));
+    }
+
+    /**
+     * Only called with the cache's monitor held, so sorted() can publish under it
+     */
+    private void changed() {
+        modCount.incrementAndGet();
+        sortedView = null;
+    }
+
+    private List<Costume> sorted() {
+        List<Costume> view = sortedView;
+        if (view == null) {
+            long version = modCount.get();
+            List<Costume> list = new ArrayList<>(entries.values());
+            list.sort(BY_NAME);
+            view = Collections.unmodifiableList(list);
+            // Re-checked under the monitor the writers hold, so a write cannot slip in before the publish
+            synchronized (this) {
+                if (modCount.get() == version) {
+                    sortedView = view;
+                }
+            }
+        }
+        return view;
+    }
+
+    private static List<Costume> copies(List<Costume> source) {
+        List<Costume> result = new ArrayList<>(source.size());
+        for (Costume costume : source) {
+            result.add(costume.copy());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,67 @@
+package service;
+
+import java.util.Collections;
+import java.util.List;
+import model.Costume;
+
+/**
+ * One page of costumes in name order, with the cursor to fetch the next one
+ */
+public class CostumePage {
+    private final List<Costume> costumes;
+    private final Cursor nextCursor;
+
+    CostumePage(List<Costume> costumes, Cursor nextCursor) {
+        this.costumes = Collections.unmodifiableList(costumes);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Costume> getCostumes() {
+        return costumes;
+    }
+
+    /**
+     * Position after the last costume of this page, or null if this is the last page
+     */
+    public Cursor getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Position in the (NamaKarakter, IDKostum) order: the last row already seen.
+     * Pass null to start from the first page.
+     */
+    public static final class Cursor {
+        private final String characterName;
+        private final int costumeId;
+
+        public Cursor(String characterName, int costumeId) {
+            if (characterName == null) {
+                throw new IllegalArgumentException("Cursor needs the character name of the last row");
+            }
+            this.characterName = characterName;
+            this.costumeId = costumeId;
+        }
+
+        static Cursor after(Costume costume) {
+            return new Cursor(costume.getCharacterName(), costume.getCostumeId());
+        }
+
+        public String getCharacterName() {
+            return characterName;
+        }
+
+        public int getCostumeId() {
+            return costumeId;
+        }
+
+        @Override
+        public String toString() {
+            return "Cursor{" + characterName + ", " + costumeId + "}";
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package service;
+
+import model.Costume;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+
+/**
+ * In-memory n-gram index over costume character name and origin.
+ * Every 1-, 2- and 3-character substring of both fields maps to the set of
+ * costume IDs containing it, kept as a sorted int array so a posting costs
+ * memory per costume it holds rather than per ID in the catalog. A query of up
+ * to three characters is a single posting lookup; longer queries merge-intersect
+ * the postings of their trigrams, smallest first, and verify the few surviving
+ * candidates. Results are ranked so that name
+ * matches beat origin matches and prefix matches beat plain substrings.
+ */
+class CostumeSearchIndex {
+
+    private static final int MAX_GRAM = 3;
+
+    private final Map<Long, Posting> postings = new HashMap<>();
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    /**
+     * Replace the whole index with the given catalog
+     * @param current checked under the write lock; false when a write made the catalog stale
+     * @return false if the catalog was stale and the index was left as it was
+     */
+    boolean rebuild(List<Costume> costumes, BooleanSupplier current) {
+        lock.writeLock().lock();
+        try {
+            if (!current.getAsBoolean()) {
+                return false;
+            }
+            postings.clear();
+            documents.clear();
+            for (Costume costume : costumes) {
+                addLocked(costume);
+            }
+            ready = true;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add or replace a single costume
+     */
+    void index(Costume costume) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(costume.getCostumeId());
+            addLocked(costume);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(int costumeId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(costumeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            ready = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the index has been built from a full catalog load
+     */
+    boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * IDs of costumes whose name or origin contains the query, best match first
+     */
+    List<Integer> search(String query) {
+        return find(query, false);
+    }
+
+    /**
+     * IDs of costumes with a word in the name or origin starting with the query, best match first
+     */
+    List<Integer> searchPrefix(String query) {
+        return find(query, true);
+    }
+
+    private List<Integer> find(String query, boolean prefixOnly) {
+        String needle = normalize(query);
+        List<Integer> result = new ArrayList<>();
+        if (needle.isEmpty()) {
+            return result;
+        }
+
+        lock.readLock().lock();
+        try {
+            int[] candidates = candidates(needle);
+            if (candidates == null) {
+                return result;
+            }
+
+            List<int[]> scored = new ArrayList<>();
+            for (int id : candidates) {
+                Document doc = documents.get(id);
+                if (doc == null) {
+                    continue;
+                }
+                int nameScore = score(doc.name, needle, 4);
+                int originScore = score(doc.origin, needle, 1);
+                if (prefixOnly) {
+                    nameScore = nameScore % 2 == 0 ? nameScore : 0;
+                    originScore = originScore % 2 == 0 ? originScore : 0;
+                }
+                int score = Math.max(nameScore, originScore);
+                if (score > 0) {
+                    scored.add(new int[] { id, score });
+                }
+            }
+
+            scored.sort(Comparator.<int[]>comparingInt(s -> -s[1])
+                                  .thenComparing(s -> documents.get(s[0]).name)
+                                  .thenComparingInt(s -> s[0]));
+            for (int[] s : scored) {
+                result.add(s[0]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Documents that contain every n-gram of the needle; still needs verification
+     * when the needle is longer than a trigram
+     */
+    private int[] candidates(String needle) {
+        if (needle.length() <= MAX_GRAM) {
+            Posting posting = postings.get(gramKey(needle, 0, needle.length()));
+            return posting == null ? null : posting.toArray();
+        }
+
+        int grams = needle.length() - MAX_GRAM + 1;
+        Posting[] lists = new Posting[grams];
+        for (int i = 0; i < grams; i++) {
+            lists[i] = postings.get(gramKey(needle, i, MAX_GRAM));
+            if (lists[i] == null) {
+                return null;
+            }
+        }
+        // Smallest first, so every merge is bounded by the shortest posting
+        Arrays.sort(lists, Comparator.comparingInt(posting -> posting.size));
+
+        int[] result = lists[0].toArray();
+        int length = result.length;
+        for (int i = 1; i < lists.length && length > 0; i++) {
+            length = lists[i].retainIn(result, length);
+        }
+        return length == 0 ? null : Arrays.copyOf(result, length);
+    }
+
+    /**
+     * Rank a field match. Even scores are prefix matches (whole field or word start),
+     * odd scores are plain substring matches; weight favours the name field.
+     */
+    private static int score(String field, String needle, int weight) {
+        if (field.equals(needle)) {
+            return 8 * weight;
+        }
+        if (field.startsWith(needle)) {
+            return 6 * weight;
+        }
+        int at = field.indexOf(needle);
+        if (at < 0) {
+            return 0;
+        }
+        while (at >= 0) {
+            if (!Character.isLetterOrDigit(field.charAt(at - 1))) {
+                return 4 * weight;
+            }
+            at = field.indexOf(needle, at + 1);
+        }
+        return 2 * weight - 1;
+    }
+
+    private void addLocked(Costume costume) {
+        Document doc = new Document(normalize(costume.getCharacterName()), normalize(costume.getCharacterOrigin()));
+        int id = costume.getCostumeId();
+        documents.put(id, doc);
+        forEachGram(doc, key -> postings.computeIfAbsent(key, k -> new Posting()).add(id));
+    }
+
+    private void removeLocked(int costumeId) {
+        Document doc = documents.remove(costumeId);
+        if (doc == null) {
+            return;
+        }
+        forEachGram(doc, key -> {
+            Posting posting = postings.get(key);
+            if (posting != null) {
+                posting.remove(costumeId);
+                if (posting.size == 0) {
+                    postings.remove(key);
+                }
+            }
+        });
+    }
+
+    private static void forEachGram(Document doc, LongConsumer action) {
+        for (String field : new String[] { doc.name, doc.origin }) {
+            for (int start = 0; start < field.length(); start++) {
+                for (int len = 1; len <= MAX_GRAM && start + len <= field.length(); len++) {
+                    action.accept(gramKey(field, start, len));
+                }
+            }
+        }
+    }
+
+    /**
+     * Pack up to three UTF-16 chars plus the gram length into one long
+     */
+    private static long gramKey(String s, int start, int len) {
+        long key = len;
+        for (int i = 0; i < len; i++) {
+            key = (key << 16) | s.charAt(start + i);
+        }
+        return key;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sorted, duplicate-free costume IDs. New costumes usually have the highest ID,
+     * so adding is an append in the common case.
+     */
+    private static final class Posting {
+        int[] ids = new int[2];
+        int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] < id) {
+                grow();
+                ids[size++] = id;
+                return;
+            }
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            grow();
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+                size--;
+            }
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+
+        /**
+         * Keep only the first length IDs of the sorted target that are also in this posting
+         * @return the new length of target
+         */
+        int retainIn(int[] target, int length) {
+            int kept = 0;
+            int i = 0;
+            for (int t = 0; t < length && i < size; t++) {
+                while (i < size && ids[i] < target[t]) {
+                    i++;
+                }
+                if (i < size && ids[i] == target[t]) {
+                    target[kept++] = target[t];
+                    i++;
+                }
+            }
+            return kept;
+        }
+
+        private void grow() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+        }
+    }
+
+    private static final class Document {
+        final String name;
+        final String origin;
+
+        Document(String name, String origin) {
+            this.name = name;
+            this.origin = origin;
+        }
+    }
+}
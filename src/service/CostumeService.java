@@ -5,23 +5,45 @@ import code.InputValidator;
 import model.Costume;
 import util.AppConstants;
 import util.AppLogger;
+import util.EventBus;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Costume Service - handles all costume-related business logic
  */
 public class CostumeService {
     
+    // Header names of the columns read by importCostumes, in insert order
+    private static final String[] IMPORT_COLUMNS = { "NamaKarakter", "AsalKarakter", "Ukuran", "Stok", "Harga" };
+    // IN-list widths for the batch row lock; padding to these keeps the cached statement texts to a few
+    private static final int[] LOCK_LIST_SIZES = { 1, 4, 16, 64 };
+    
     private static CostumeService instance;
     
+    private final CostumeCatalogCache catalogCache = new CostumeCatalogCache();
+    private final CostumeSearchIndex searchIndex = new CostumeSearchIndex();
+    
     private CostumeService() {}
     
     public static synchronized CostumeService getInstance() {
@@ -35,8 +57,14 @@ public class CostumeService {
      * Get all costumes
      */
     public List<Costume> getAllCostumes() {
+        List<Costume> cached = catalogCache.getAll();
+        if (cached != null) {
+            return cached;
+        }
+        
         AppLogger.logDebug("Retrieving all costumes");
         
+        long stamp = catalogCache.writeStamp();
         List<Costume> costumes = new ArrayList<>();
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -56,6 +84,12 @@ public class CostumeService {
                 costumes.add(costume);
             }
             
+            // A write since the stamp may be newer than these rows; leave the cache and index to it
+            if (!catalogCache.replaceAll(costumes, stamp)
+                    || !searchIndex.rebuild(costumes, () -> catalogCache.writeStamp() == stamp)) {
+                AppLogger.logDebug("Catalog changed during load, not cached");
+            }
+            
             AppLogger.logDatabaseOperation("SELECT", AppConstants.Database.TABLE_COSTUME, true);
             AppLogger.logDebug("Retrieved %d costumes", costumes.size());
             
@@ -73,8 +107,14 @@ public class CostumeService {
      * Get costume by ID
      */
     public Costume getCostumeById(int costumeId) {
+        Costume cached = catalogCache.get(costumeId);
+        if (cached != null) {
+            return cached;
+        }
+        
         AppLogger.logDebug("Retrieving costume with ID: %d", costumeId);
         
+        long stamp = catalogCache.writeStamp();
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
@@ -91,6 +131,7 @@ public class CostumeService {
             
             if (rs.next()) {
                 Costume costume = mapResultSetToCostume(rs);
+                catalogCache.load(costume, stamp);
                 AppLogger.logDatabaseOperation("SELECT", AppConstants.Database.TABLE_COSTUME, true);
                 return costume;
             } else {
@@ -145,9 +186,16 @@ public class CostumeService {
                     int costumeId = rs.getInt(1);
                     
                     Costume costume = new Costume(characterName, characterOrigin, 
-                                                Costume.Size.valueOf(size), stock, price);
+                                                Costume.Size.fromCode(size), stock, price);
                     costume.setCostumeId(costumeId);
                     
+                    Costume stored = costume.copy();
+                    stored.setCharacterName(InputValidator.sanitizeInput(characterName));
+                    stored.setCharacterOrigin(InputValidator.sanitizeInput(characterOrigin));
+                    catalogCache.put(stored);
+                    searchIndex.index(stored);
+                    EventBus.getInstance().publish(DomainEvent.CostumeChanged.saved(stored));
+                    
                     AppLogger.logDatabaseOperation("INSERT", AppConstants.Database.TABLE_COSTUME, true);
                     AppLogger.logUserAction("SYSTEM", AppConstants.Actions.CREATE, "Costume", 
                                           String.valueOf(costumeId), 
@@ -166,7 +214,227 @@ public class CostumeService {
         
         return null;
     }
-    
+
+    /**
+     * Import costumes from a UTF-8 file: tab-separated if the name ends in .tsv or .txt,
+     * comma-separated otherwise. See importCostumes(Reader, char, int).
+     * @return the import outcome, or null if the file could not be opened or has no usable header
+     */
+    public ImportResult importCostumes(File file) {
+        String name = file.getName().toLowerCase();
+        char delimiter = name.endsWith(".tsv") || name.endsWith(".txt") ? '\t' : ',';
+
+        try (Reader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            return importCostumes(in, delimiter, AppConstants.Database.IMPORT_BATCH_SIZE);
+        } catch (IOException e) {
+            AppLogger.logError("Error reading costume import %s", e, file);
+            return null;
+        }
+    }
+
+    /**
+     * Import costumes from delimited text. The first record is a header naming the columns
+     * NamaKarakter, AsalKarakter, Ukuran, Stok and Harga in any order; other columns are ignored.
+     * Rows are read batchSize at a time, validated in parallel, and inserted and committed as
+     * one JDBC batch. Rows that fail validation or the insert are skipped and reported in the
+     * result; the rest of their batch is still stored.
+     * @return the import outcome, or null if the header is missing or incomplete
+     */
+    public ImportResult importCostumes(Reader source, char delimiter, int batchSize) {
+        long start = System.currentTimeMillis();
+        int chunkSize = Math.max(1, batchSize);
+        DelimitedReader reader = new DelimitedReader(source, delimiter);
+        ImportResult result = new ImportResult();
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            int[] columns = importColumns(reader.next());
+            if (columns == null) {
+                AppLogger.logWarning("Costume import rejected: header must name %s", String.join(", ", IMPORT_COLUMNS));
+                return null;
+            }
+
+            conn = DatabaseManager.getInstance().getConnection();
+            conn.setAutoCommit(false);
+            pstmt = conn.prepareStatement("INSERT INTO " + AppConstants.Database.TABLE_COSTUME +
+                                          " (NamaKarakter, AsalKarakter, Ukuran, Stok, Harga) VALUES (?, ?, ?, ?, ?)");
+
+            List<ImportRow> chunk = new ArrayList<>(Math.min(chunkSize, 10000));
+            List<String> fields;
+            while (true) {
+                try {
+                    fields = reader.next();
+                } catch (IOException e) {
+                    // Keep what was committed so far; the report says where reading stopped
+                    AppLogger.logError("Costume import stopped at line %d", e, reader.getRecordLine());
+                    importChunk(conn, pstmt, chunk, columns, result);
+                    result.reject(reader.getRecordLine(), "Impor berhenti, file tidak dapat dibaca: " + e.getMessage());
+                    break;
+                }
+                if (fields == null) {
+                    importChunk(conn, pstmt, chunk, columns, result);
+                    break;
+                }
+                chunk.add(new ImportRow(reader.getRecordLine(), fields));
+                if (chunk.size() == chunkSize) {
+                    importChunk(conn, pstmt, chunk, columns, result);
+                    chunk.clear();
+                }
+            }
+
+        } catch (IOException e) {
+            AppLogger.logError("Error reading costume import header", e);
+            return null;
+        } catch (SQLException e) {
+            RentalService.rollbackQuietly(conn);
+            AppLogger.logDatabaseError("importCostumes", AppConstants.Database.TABLE_COSTUME, e);
+            AppLogger.logError("Costume import stopped after %d rows", e, result.getImported());
+            result.reject(reader.getRecordLine(), "Impor berhenti, kesalahan database: " + e.getMessage());
+        } finally {
+            DatabaseManager.closeResources(conn, pstmt, null);
+        }
+
+        result.setDurationMillis(System.currentTimeMillis() - start);
+        if (result.getImported() > 0) {
+            // Too many rows to add one by one; let readers load the catalog again
+            invalidateCatalogCache();
+            EventBus.getInstance().publish(new DomainEvent.CostumesImported(result.getImported()));
+        }
+
+        AppLogger.logPerformance("Import costumes", result.getDurationMillis());
+        AppLogger.logUserAction("SYSTEM", AppConstants.Actions.IMPORT,
+                              String.format("Imported %d costumes, %d rows rejected",
+                                            result.getImported(), result.getRejected()));
+        return result;
+    }
+
+    /**
+     * Positions of IMPORT_COLUMNS in the header record, or null if any is missing
+     */
+    private static int[] importColumns(List<String> header) {
+        if (header == null) {
+            return null;
+        }
+        int[] columns = new int[IMPORT_COLUMNS.length];
+        for (int i = 0; i < IMPORT_COLUMNS.length; i++) {
+            columns[i] = -1;
+            for (int j = 0; j < header.size(); j++) {
+                // A byte order mark may precede the first column name
+                if (header.get(j).replace("\uFEFF", "").trim().equalsIgnoreCase(IMPORT_COLUMNS[i])) {
+                    columns[i] = j;
+                    break;
+                }
+            }
+            if (columns[i] < 0) {
+                return null;
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Validate a chunk of rows, insert the valid ones as one batch and commit
+     */
+    private void importChunk(Connection conn, PreparedStatement pstmt, List<ImportRow> chunk,
+                             int[] columns, ImportResult result) throws SQLException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        // Each row is parsed and validated independently and only writes its own fields
+        chunk.parallelStream().forEach(row -> parseImportRow(row, columns));
+
+        int queued = 0;
+        for (ImportRow row : chunk) {
+            if (row.error == null) {
+                bindImportRow(pstmt, row);
+                pstmt.addBatch();
+                queued++;
+            }
+        }
+
+        if (queued > 0) {
+            try {
+                pstmt.executeBatch();
+                conn.commit();
+                result.addImported(queued);
+            } catch (SQLException e) {
+                // One bad row fails the batch (all of it once the driver rewrites it into a
+                // single statement); insert the rows one by one to find and skip it
+                pstmt.clearBatch();
+                conn.rollback();
+                AppLogger.logWarning("Import batch rejected, retrying row by row: %s", e.getMessage());
+                for (ImportRow row : chunk) {
+                    if (row.error == null) {
+                        try {
+                            bindImportRow(pstmt, row);
+                            pstmt.executeUpdate();
+                            result.addImported(1);
+                        } catch (SQLException rowError) {
+                            row.error = "Gagal disimpan: " + rowError.getMessage();
+                        }
+                    }
+                }
+                conn.commit();
+            }
+        }
+
+        for (ImportRow row : chunk) {
+            if (row.error != null) {
+                result.reject(row.line, row.error);
+            }
+        }
+    }
+
+    /**
+     * Fill in the row's values, or its error if they are not a valid costume
+     */
+    private void parseImportRow(ImportRow row, int[] columns) {
+        for (int column : columns) {
+            if (column >= row.fields.size()) {
+                row.error = "Jumlah kolom kurang";
+                return;
+            }
+        }
+        String characterName = row.fields.get(columns[0]);
+        String characterOrigin = row.fields.get(columns[1]);
+        String size = row.fields.get(columns[2]);
+        int stock;
+        BigDecimal price;
+        try {
+            stock = Integer.parseInt(row.fields.get(columns[3]).trim());
+        } catch (NumberFormatException e) {
+            row.error = "Stok harus berupa angka";
+            return;
+        }
+        try {
+            price = new BigDecimal(row.fields.get(columns[4]).trim());
+        } catch (NumberFormatException e) {
+            row.error = "Harga harus berupa angka";
+            return;
+        }
+
+        InputValidator.ValidationResult validation = validateCostumeData(characterName, characterOrigin, size, stock, price);
+        if (!validation.isValid()) {
+            row.error = validation.getMessage();
+            return;
+        }
+        row.characterName = InputValidator.sanitizeInput(characterName);
+        row.characterOrigin = InputValidator.sanitizeInput(characterOrigin);
+        row.size = Costume.Size.fromCode(size).getCode();
+        row.stock = stock;
+        row.price = price;
+    }
+
+    private static void bindImportRow(PreparedStatement pstmt, ImportRow row) throws SQLException {
+        pstmt.setString(1, row.characterName);
+        pstmt.setString(2, row.characterOrigin);
+        pstmt.setString(3, row.size);
+        pstmt.setInt(4, row.stock);
+        pstmt.setBigDecimal(5, row.price);
+    }
+
     /**
      * Update existing costume
      */
@@ -192,8 +460,8 @@ public class CostumeService {
                           "WHERE IDKostum = ?";
             
             pstmt = conn.prepareStatement(query);
-            pstmt.setString(1, InputValidator.sanitizeInput(characterName));
-            pstmt.setString(2, InputValidator.sanitizeInput(characterOrigin));
+            pstmt.setString(1, characterName);
+            pstmt.setString(2, characterOrigin);
             pstmt.setString(3, size);
             pstmt.setInt(4, stock);
             pstmt.setBigDecimal(5, price);
@@ -202,6 +470,13 @@ public class CostumeService {
             int affectedRows = pstmt.executeUpdate();
             
             if (affectedRows > 0) {
+                Costume stored = new Costume(characterName, characterOrigin,
+                                             Costume.Size.fromCode(size), stock, price);
+                stored.setCostumeId(costumeId);
+                catalogCache.put(stored);
+                searchIndex.index(stored);
+                EventBus.getInstance().publish(DomainEvent.CostumeChanged.saved(stored));
+                
                 AppLogger.logDatabaseOperation("UPDATE", AppConstants.Database.TABLE_COSTUME, true);
                 AppLogger.logUserAction("SYSTEM", AppConstants.Actions.UPDATE, "Costume", 
                                       String.valueOf(costumeId), 
@@ -247,6 +522,10 @@ public class CostumeService {
             int affectedRows = pstmt.executeUpdate();
             
             if (affectedRows > 0) {
+                catalogCache.remove(costumeId);
+                searchIndex.remove(costumeId);
+                EventBus.getInstance().publish(DomainEvent.CostumeChanged.deleted(costumeId));
+                
                 AppLogger.logDatabaseOperation("DELETE", AppConstants.Database.TABLE_COSTUME, true);
                 AppLogger.logUserAction("SYSTEM", AppConstants.Actions.DELETE, "Costume", 
                                       String.valueOf(costumeId), "Costume deleted");
@@ -266,9 +545,16 @@ public class CostumeService {
     }
     
     /**
-     * Search costumes by character name
+     * Search costumes by character name or origin (substring match).
+     * Served from the in-memory n-gram index, best matches first; falls back
+     * to a LIKE query when the catalog cannot be loaded into memory.
      */
     public List<Costume> searchCostumes(String searchTerm) {
+        List<Costume> indexed = searchIndexed(searchTerm, false);
+        if (indexed != null) {
+            return indexed;
+        }
+        
         AppLogger.logDebug("Searching costumes with term: %s", searchTerm);
         
         List<Costume> costumes = new ArrayList<>();
@@ -309,6 +595,123 @@ public class CostumeService {
         return costumes;
     }
     
+    /**
+     * Search costumes whose name or origin has a word starting with the given text,
+     * for search-as-you-type. Best matches first.
+     */
+    public List<Costume> searchCostumesByPrefix(String prefix) {
+        List<Costume> indexed = searchIndexed(prefix, true);
+        return indexed != null ? indexed : new ArrayList<>();
+    }
+    
+    /**
+     * One page of the catalog in name order, read straight from the database.
+     * Each page seeks past the cursor on the (NamaKarakter, IDKostum) index, so
+     * fetching page 1000 costs the same as page 1.
+     * @param after last costume of the previous page, or null for the first page
+     * @param limit page size, capped at AppConstants.Database.MAX_PAGE_SIZE
+     * @return the page; empty with no next cursor if the query failed
+     */
+    public CostumePage getCostumePage(CostumePage.Cursor after, int limit) {
+        return queryPage(null, after, limit);
+    }
+    
+    /**
+     * One page of costumes whose name or origin contains the search term, in name order.
+     * Unlike searchCostumes the results are not ranked, so pages stay stable while scrolling.
+     * @param after last costume of the previous page, or null for the first page
+     */
+    public CostumePage searchCostumePage(String searchTerm, CostumePage.Cursor after, int limit) {
+        return queryPage(InputValidator.sanitizeInput(searchTerm), after, limit);
+    }
+    
+    /**
+     * Keyset page query. One extra row is read to tell whether another page follows.
+     * @param searchTerm substring to match against name and origin, or null for all costumes
+     */
+    private CostumePage queryPage(String searchTerm, CostumePage.Cursor after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, AppConstants.Database.MAX_PAGE_SIZE));
+        AppLogger.logDebug("Reading costume page of %d after %s", pageSize, after);
+        
+        List<Costume> costumes = new ArrayList<>(pageSize + 1);
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseManager.getInstance().getConnection();
+            
+            List<String> conditions = new ArrayList<>(2);
+            if (searchTerm != null) {
+                conditions.add("(NamaKarakter LIKE ? OR AsalKarakter LIKE ?)");
+            }
+            if (after != null) {
+                conditions.add("(NamaKarakter, IDKostum) > (?, ?)");
+            }
+            String query = "SELECT IDKostum, NamaKarakter, AsalKarakter, Ukuran, Stok, Harga " +
+                          "FROM " + AppConstants.Database.TABLE_COSTUME +
+                          (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions)) +
+                          " ORDER BY NamaKarakter, IDKostum LIMIT ?";
+            
+            pstmt = conn.prepareStatement(query);
+            int index = 1;
+            if (searchTerm != null) {
+                String searchPattern = "%" + searchTerm + "%";
+                pstmt.setString(index++, searchPattern);
+                pstmt.setString(index++, searchPattern);
+            }
+            if (after != null) {
+                pstmt.setString(index++, after.getCharacterName());
+                pstmt.setInt(index++, after.getCostumeId());
+            }
+            pstmt.setInt(index, pageSize + 1);
+            
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                costumes.add(mapResultSetToCostume(rs));
+            }
+            
+            AppLogger.logDatabaseOperation("SELECT", AppConstants.Database.TABLE_COSTUME, true);
+            
+        } catch (SQLException e) {
+            AppLogger.logDatabaseError("queryPage", AppConstants.Database.TABLE_COSTUME, e);
+            AppLogger.logError("Error reading costume page after %s", e, after);
+            return new CostumePage(new ArrayList<>(), null);
+        } finally {
+            DatabaseManager.closeResources(conn, pstmt, rs);
+        }
+        
+        if (costumes.size() <= pageSize) {
+            return new CostumePage(costumes, null);
+        }
+        costumes.remove(pageSize);
+        return new CostumePage(costumes, CostumePage.Cursor.after(costumes.get(pageSize - 1)));
+    }
+    
+    /**
+     * Run a query against the search index, loading the catalog first if needed.
+     * @return matching costumes, or null when the index is unavailable
+     */
+    private List<Costume> searchIndexed(String searchTerm, boolean prefixOnly) {
+        if (!catalogCache.isFresh() || !searchIndex.isReady()) {
+            getAllCostumes();
+        }
+        if (!catalogCache.isFresh() || !searchIndex.isReady()) {
+            return null;
+        }
+        
+        String needle = InputValidator.sanitizeInput(searchTerm);
+        List<Integer> ids = prefixOnly ? searchIndex.searchPrefix(needle) : searchIndex.search(needle);
+        List<Costume> costumes = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            Costume costume = catalogCache.get(id);
+            if (costume != null) {
+                costumes.add(costume);
+            }
+        }
+        return costumes;
+    }
+    
     /**
      * Check if costume is available for rental
      */
@@ -321,58 +724,275 @@ public class CostumeService {
      * Reserve costume stock for rental
      */
     public boolean reserveStock(int costumeId, int quantity) {
+        return reserveStockAndGetRemaining(costumeId, quantity) >= 0;
+    }
+    
+    /**
+     * Reserve costume stock with a single conditional update.
+     * The WHERE clause only matches while enough stock is left, so concurrent
+     * counters can never oversell. The new stock comes back from the same
+     * statement, so no separate SELECT is needed.
+     * @return remaining stock after the reservation, or -1 if the costume
+     *         does not exist or has insufficient stock
+     */
+    public int reserveStockAndGetRemaining(int costumeId, int quantity) {
         AppLogger.logDebug("Reserving %d units of costume ID: %d", quantity, costumeId);
         
+        if (quantity <= 0) {
+            AppLogger.logWarning("Invalid reservation quantity %d for costume ID %d", quantity, costumeId);
+            return -1;
+        }
+        
         Connection conn = null;
-        PreparedStatement pstmt = null;
         
         try {
             conn = DatabaseManager.getInstance().getConnection();
             
-            // Check current stock
-            String selectQuery = "SELECT Stok FROM " + AppConstants.Database.TABLE_COSTUME + " WHERE IDKostum = ?";
-            pstmt = conn.prepareStatement(selectQuery);
-            pstmt.setInt(1, costumeId);
+            int remaining = decrementStock(conn, costumeId, quantity);
+            if (remaining < 0) {
+                AppLogger.logWarning("Insufficient stock or unknown costume ID %d: requested %d", 
+                                   costumeId, quantity);
+                return -1;
+            }
             
-            ResultSet rs = pstmt.executeQuery();
+            stockChanged(costumeId, remaining);
             
-            if (rs.next()) {
-                int currentStock = rs.getInt("Stok");
-                
-                if (currentStock >= quantity) {
-                    // Update stock
-                    rs.close();
-                    pstmt.close();
-                    
-                    String updateQuery = "UPDATE " + AppConstants.Database.TABLE_COSTUME + 
-                                       " SET Stok = Stok - ? WHERE IDKostum = ?";
-                    pstmt = conn.prepareStatement(updateQuery);
-                    pstmt.setInt(1, quantity);
-                    pstmt.setInt(2, costumeId);
-                    
-                    int affectedRows = pstmt.executeUpdate();
-                    
-                    if (affectedRows > 0) {
-                        AppLogger.logUserAction("SYSTEM", "RESERVE_STOCK", "Costume", 
-                                              String.valueOf(costumeId), 
-                                              String.format("Reserved %d units", quantity));
-                        return true;
-                    }
-                } else {
-                    AppLogger.logWarning("Insufficient stock for costume ID %d: requested %d, available %d", 
-                                       costumeId, quantity, currentStock);
-                }
-            }
+            AppLogger.logUserAction("SYSTEM", "RESERVE_STOCK", "Costume", 
+                                  String.valueOf(costumeId), 
+                                  String.format("Reserved %d units, %d remaining", quantity, remaining));
+            return remaining;
             
         } catch (SQLException e) {
             AppLogger.logDatabaseError("reserveStock", AppConstants.Database.TABLE_COSTUME, e);
             AppLogger.logError("Error reserving stock for costume ID: %d", e, costumeId);
         } finally {
-            DatabaseManager.closeResources(conn, pstmt, null);
+            DatabaseManager.closeResources(conn, null, null);
         }
         
+        return -1;
+    }
+    
+    /**
+     * Reserve stock for several costumes at once, e.g. a group set. Either every
+     * costume gets its quantity or nothing changes.
+     * @param quantities units to reserve per costume ID
+     * @return true if all quantities were reserved
+     */
+    public boolean reserveStockBatch(Map<Integer, Integer> quantities) {
+        return adjustStockBatch(quantities, true);
+    }
+
+    /**
+     * Put back stock for several costumes at once, all or nothing
+     * @param quantities units returned per costume ID
+     * @return true if every costume exists and got its stock back
+     */
+    public boolean returnStockBatch(Map<Integer, Integer> quantities) {
+        return adjustStockBatch(quantities, false);
+    }
+
+    /**
+     * Lock the affected rows in ascending ID order, so two batches sharing costumes
+     * wait on each other instead of deadlocking, check them, then apply every change
+     * in one JDBC batch and commit.
+     */
+    private boolean adjustStockBatch(Map<Integer, Integer> quantities, boolean reserve) {
+        String operation = reserve ? "reserveStockBatch" : "returnStockBatch";
+        if (quantities == null || quantities.isEmpty()) {
+            return true;
+        }
+        for (Map.Entry<Integer, Integer> item : quantities.entrySet()) {
+            if (item.getKey() == null || item.getValue() == null || item.getValue() <= 0) {
+                AppLogger.logWarning("%s: invalid quantity %s for costume ID %s", operation, item.getValue(), item.getKey());
+                return false;
+            }
+        }
+
+        SortedMap<Integer, Integer> sorted = new TreeMap<>(quantities);
+        Map<Integer, Integer> newStock = new HashMap<>();
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseManager.getInstance().getConnection();
+            conn.setAutoCommit(false);
+
+            // Chunks go in ascending ID order too, so the lock order holds across them
+            List<Integer> ids = new ArrayList<>(sorted.keySet());
+            int maxWidth = LOCK_LIST_SIZES[LOCK_LIST_SIZES.length - 1];
+            for (int from = 0; from < ids.size(); from += maxWidth) {
+                List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + maxWidth));
+                int width = lockListSize(chunk.size());
+                String placeholders = String.join(", ", Collections.nCopies(width, "?"));
+                String lockQuery = "SELECT IDKostum, Stok FROM " + AppConstants.Database.TABLE_COSTUME +
+                                 " WHERE IDKostum IN (" + placeholders + ") ORDER BY IDKostum FOR UPDATE";
+                pstmt = conn.prepareStatement(lockQuery);
+                for (int i = 0; i < width; i++) {
+                    // Pad with the last ID; a repeated value in the IN list matches nothing extra
+                    pstmt.setInt(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                }
+                rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    int costumeId = rs.getInt(1);
+                    int quantity = sorted.get(costumeId);
+                    int stock = rs.getInt(2);
+                    if (reserve && stock < quantity) {
+                        AppLogger.logWarning("Insufficient stock for costume ID %d: requested %d, available %d",
+                                           costumeId, quantity, stock);
+                        RentalService.rollbackQuietly(conn);
+                        return false;
+                    }
+                    newStock.put(costumeId, reserve ? stock - quantity : stock + quantity);
+                }
+                DatabaseManager.closeResources(null, pstmt, rs);
+                rs = null;
+                pstmt = null;
+            }
+
+            if (newStock.size() != sorted.size()) {
+                AppLogger.logWarning("%s: unknown costume IDs in %s", operation, sorted.keySet());
+                RentalService.rollbackQuietly(conn);
+                return false;
+            }
+
+            // The rows are locked, so the new values computed above are exact
+            String updateQuery = "UPDATE " + AppConstants.Database.TABLE_COSTUME +
+                               " SET Stok = ? WHERE IDKostum = ?";
+            pstmt = conn.prepareStatement(updateQuery);
+            for (int costumeId : sorted.keySet()) {
+                pstmt.setInt(1, newStock.get(costumeId));
+                pstmt.setInt(2, costumeId);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            conn.commit();
+
+            for (Map.Entry<Integer, Integer> item : newStock.entrySet()) {
+                stockChanged(item.getKey(), item.getValue());
+            }
+
+            AppLogger.logDatabaseOperation("BATCH UPDATE", AppConstants.Database.TABLE_COSTUME, true);
+            AppLogger.logUserAction("SYSTEM", reserve ? "RESERVE_STOCK" : "RETURN_STOCK",
+                                  String.format("%s %s", reserve ? "Reserved" : "Returned", sorted));
+            return true;
+
+        } catch (SQLException e) {
+            RentalService.rollbackQuietly(conn);
+            AppLogger.logDatabaseError(operation, AppConstants.Database.TABLE_COSTUME, e);
+            AppLogger.logError("Error adjusting stock for costume IDs %s", e, sorted.keySet());
+        } finally {
+            DatabaseManager.closeResources(conn, pstmt, rs);
+        }
+
         return false;
     }
+
+    /**
+     * Smallest IN-list width from LOCK_LIST_SIZES that holds count IDs
+     */
+    private static int lockListSize(int count) {
+        for (int size : LOCK_LIST_SIZES) {
+            if (count <= size) {
+                return size;
+            }
+        }
+        return LOCK_LIST_SIZES[LOCK_LIST_SIZES.length - 1];
+    }
+
+    /**
+     * Conditionally take stock on the caller's connection, so it can be part of a larger transaction.
+     * Does not touch the catalog cache; call stockChanged once the transaction commits.
+     * @return remaining stock, or -1 if the costume does not exist or has insufficient stock
+     */
+    int decrementStock(Connection conn, int costumeId, int quantity) throws SQLException {
+        return updateStock(conn, "Stok - ?", " AND Stok >= ?", costumeId, quantity);
+    }
+    
+    /**
+     * Put stock back on the caller's connection, so it can be part of a larger transaction.
+     * Does not touch the catalog cache; call stockChanged once the transaction commits.
+     * @return stock after the increment, or -1 if the costume does not exist
+     */
+    int incrementStock(Connection conn, int costumeId, int quantity) throws SQLException {
+        return updateStock(conn, "Stok + ?", "", costumeId, quantity);
+    }
+    
+    /**
+     * Apply a stock change in one statement and return the new value.
+     * MySQL hands it back through LAST_INSERT_ID(expr); H2 has no equivalent
+     * and reads it from the updated row via FINAL TABLE instead.
+     * @param newStock expression for the new stock, with one ? for the quantity
+     * @param guard extra WHERE condition, with one ? for the quantity, or empty
+     * @return the new stock, or -1 if no row was updated or the row is gone
+     */
+    private int updateStock(Connection conn, String newStock, String guard, int costumeId, int quantity) throws SQLException {
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        boolean h2 = DatabaseManager.getInstance().getDialect() == DatabaseManager.Dialect.H2;
+        
+        try {
+            String updateQuery = "UPDATE " + AppConstants.Database.TABLE_COSTUME +
+                               " SET Stok = " + (h2 ? newStock : "LAST_INSERT_ID(" + newStock + ")") +
+                               " WHERE IDKostum = ?" + guard;
+            if (h2) {
+                pstmt = conn.prepareStatement("SELECT Stok FROM FINAL TABLE (" + updateQuery + ")");
+            } else {
+                pstmt = conn.prepareStatement(updateQuery, PreparedStatement.RETURN_GENERATED_KEYS);
+            }
+            pstmt.setInt(1, quantity);
+            pstmt.setInt(2, costumeId);
+            if (!guard.isEmpty()) {
+                pstmt.setInt(3, quantity);
+            }
+            
+            if (h2) {
+                rs = pstmt.executeQuery();
+                return rs.next() ? rs.getInt(1) : -1;
+            }
+            
+            if (pstmt.executeUpdate() == 0) {
+                return -1;
+            }
+            
+            rs = pstmt.getGeneratedKeys();
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+            // The driver omits the key when the new value is 0; read it back on the same connection
+            int stock = readStock(conn, costumeId);
+            if (stock < 0) {
+                // Deleted between the autocommit UPDATE and the read; forget it rather than cache a guess
+                catalogCache.remove(costumeId);
+                searchIndex.remove(costumeId);
+            }
+            return stock;
+        } finally {
+            DatabaseManager.closeResources(null, pstmt, rs);
+        }
+    }
+    
+    /**
+     * Record a committed stock level so cached reads stay current, and announce it
+     */
+    void stockChanged(int costumeId, int stock) {
+        catalogCache.setStock(costumeId, stock);
+        EventBus.getInstance().publish(DomainEvent.CostumeChanged.stock(costumeId, stock, catalogCache.peek(costumeId)));
+    }
+    
+    /**
+     * Read the current stock of a costume on an existing connection
+     * @return the stock, or -1 if the costume does not exist
+     */
+    private int readStock(Connection conn, int costumeId) throws SQLException {
+        String query = "SELECT Stok FROM " + AppConstants.Database.TABLE_COSTUME + " WHERE IDKostum = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setInt(1, costumeId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : -1;
+            }
+        }
+    }
     
     /**
      * Return costume stock
@@ -381,21 +1001,15 @@ public class CostumeService {
         AppLogger.logDebug("Returning %d units of costume ID: %d", quantity, costumeId);
         
         Connection conn = null;
-        PreparedStatement pstmt = null;
         
         try {
             conn = DatabaseManager.getInstance().getConnection();
             
-            String query = "UPDATE " + AppConstants.Database.TABLE_COSTUME + 
-                          " SET Stok = Stok + ? WHERE IDKostum = ?";
-            
-            pstmt = conn.prepareStatement(query);
-            pstmt.setInt(1, quantity);
-            pstmt.setInt(2, costumeId);
-            
-            int affectedRows = pstmt.executeUpdate();
+            int stock = incrementStock(conn, costumeId, quantity);
             
-            if (affectedRows > 0) {
+            if (stock >= 0) {
+                stockChanged(costumeId, stock);
+                
                 AppLogger.logUserAction("SYSTEM", "RETURN_STOCK", "Costume", 
                                       String.valueOf(costumeId), 
                                       String.format("Returned %d units", quantity));
@@ -406,12 +1020,35 @@ public class CostumeService {
             AppLogger.logDatabaseError("returnStock", AppConstants.Database.TABLE_COSTUME, e);
             AppLogger.logError("Error returning stock for costume ID: %d", e, costumeId);
         } finally {
-            DatabaseManager.closeResources(conn, pstmt, null);
+            DatabaseManager.closeResources(conn, null, null);
         }
         
         return false;
     }
     
+    /**
+     * Set how long the catalog cache may serve reads before reloading from the database
+     */
+    public void setCatalogCacheTtl(long ttl, TimeUnit unit) {
+        catalogCache.setTtl(ttl, unit);
+        AppLogger.logInfo("Catalog cache TTL set to %d ms", catalogCache.getTtlMillis());
+    }
+    
+    /**
+     * Drop all cached costumes, e.g. after the kostum table was changed outside this service
+     */
+    public void invalidateCatalogCache() {
+        catalogCache.invalidateAll();
+        searchIndex.clear();
+    }
+    
+    /**
+     * Get catalog cache statistics for diagnostics
+     */
+    public String getCatalogCacheStats() {
+        return catalogCache.toString();
+    }
+    
     /**
      * Check if costume is currently rented
      */
@@ -452,7 +1089,7 @@ public class CostumeService {
         costume.setCostumeId(rs.getInt("IDKostum"));
         costume.setCharacterName(rs.getString("NamaKarakter"));
         costume.setCharacterOrigin(rs.getString("AsalKarakter"));
-        costume.setSize(Costume.Size.valueOf(rs.getString("Ukuran")));
+        costume.setSize(Costume.Size.fromCode(rs.getString("Ukuran")));
         costume.setStock(rs.getInt("Stok"));
         costume.setAvailableStock(rs.getInt("Stok")); // Assuming available = total for now
         costume.setPrice(rs.getBigDecimal("Harga"));
@@ -479,7 +1116,7 @@ public class CostumeService {
         
         // Validate size
         try {
-            Costume.Size.valueOf(size);
+            Costume.Size.fromCode(size);
         } catch (IllegalArgumentException e) {
             return new InputValidator.ValidationResult(false, "Ukuran tidak valid");
         }
@@ -497,4 +1134,23 @@ public class CostumeService {
         
         return new InputValidator.ValidationResult(true, "Valid");
     }
-}
\ No newline at end of file
+
+    /**
+     * One record of an import file and, once parsed, its values or the reason it was rejected
+     */
+    private static final class ImportRow {
+        final int line;
+        final List<String> fields;
+        String characterName;
+        String characterOrigin;
+        String size;
+        int stock;
+        BigDecimal price;
+        String error;
+
+        ImportRow(int line, List<String> fields) {
+            this.line = line;
+            this.fields = fields;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package service;
+
+import code.DatabaseManager;
+import code.InputValidator;
+import model.Customer;
+import util.AppConstants;
+import util.AppLogger;
+import util.EventBus;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Customer Service - handles customer records
+ */
+public class CustomerService {
+
+    private static CustomerService instance;
+
+    private CustomerService() {}
+
+    public static synchronized CustomerService getInstance() {
+        if (instance == null) {
+            instance = new CustomerService();
+        }
+        return instance;
+    }
+
+    /**
+     * Add a customer
+     * @param customer the customer to save; its ID is set on success
+     * @return the generated customer ID, or -1 if the data is invalid or the insert failed
+     */
+    public int createCustomer(Customer customer) {
+        AppLogger.logDebug("Creating customer: %s", customer.getName());
+
+        InputValidator.ValidationResult validation = validateCustomer(customer);
+        if (!validation.isValid()) {
+            AppLogger.logWarning("Invalid customer data: %s", validation.getMessage());
+            return -1;
+        }
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseManager.getInstance().getConnection();
+
+            String query = "INSERT INTO " + AppConstants.Database.TABLE_CUSTOMER +
+                          " (NamaPelanggan, Alamat, AkunInstagram, NomorHP) VALUES (?, ?, ?, ?)";
+
+            pstmt = conn.prepareStatement(query, PreparedStatement.RETURN_GENERATED_KEYS);
+            bindCustomer(pstmt, customer);
+            pstmt.executeUpdate();
+
+            rs = pstmt.getGeneratedKeys();
+            if (!rs.next()) {
+                AppLogger.logError("No customer ID generated for: " + customer.getName());
+                return -1;
+            }
+            int customerId = rs.getInt(1);
+            customer.setCustomerId(customerId);
+
+            EventBus.getInstance().publish(
+                new DomainEvent.CustomerChanged(DomainEvent.CustomerChanged.Kind.SAVED, customerId, customer));
+            AppLogger.logUserAction("SYSTEM", AppConstants.Actions.CREATE, "Customer", String.valueOf(customerId),
+                                  String.format("New customer created: %s", customer.getName()));
+            return customerId;
+
+        } catch (SQLException e) {
+            AppLogger.logDatabaseError("createCustomer", AppConstants.Database.TABLE_CUSTOMER, e);
+            AppLogger.logError("Error creating customer: %s", e, customer.getName());
+        } finally {
+            DatabaseManager.closeResources(conn, pstmt, rs);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Update an existing customer
+     */
+    public boolean updateCustomer(Customer customer) {
+        AppLogger.logDebug("Updating customer ID: %d", customer.getCustomerId());
+
+        InputValidator.ValidationResult validation = validateCustomer(customer);
+        if (!validation.isValid()) {
+            AppLogger.logWarning("Invalid customer data for update: %s", validation.getMessage());
+            return false;
+        }
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = DatabaseManager.getInstance().getConnection();
+
+            String query = "UPDATE " + AppConstants.Database.TABLE_CUSTOMER +
+                          " SET NamaPelanggan = ?, Alamat = ?, AkunInstagram = ?, NomorHP = ? WHERE IDPelanggan = ?";
+
+            pstmt = conn.prepareStatement(query);
+            bindCustomer(pstmt, customer);
+            pstmt.setInt(5, customer.getCustomerId());
+
+            if (pstmt.executeUpdate() > 0) {
+                EventBus.getInstance().publish(new DomainEvent.CustomerChanged(
+                    DomainEvent.CustomerChanged.Kind.SAVED, customer.getCustomerId(), customer));
+                AppLogger.logUserAction("SYSTEM", AppConstants.Actions.UPDATE, "Customer",
+                                      String.valueOf(customer.getCustomerId()),
+                                      String.format("Customer updated: %s", customer.getName()));
+                return true;
+            } else {
+                AppLogger.logWarning("No customer found with ID: %d for update", customer.getCustomerId());
+            }
+
+        } catch (SQLException e) {
+            AppLogger.logDatabaseError("updateCustomer", AppConstants.Database.TABLE_CUSTOMER, e);
+            AppLogger.logError("Error updating customer ID: %d", e, customer.getCustomerId());
+        } finally {
+            DatabaseManager.closeResources(conn, pstmt, null);
+        }
+
+        return false;
+    }
+
+    /**
+     * Delete a customer
+     */
+    public boolean deleteCustomer(int customerId) {
+        AppLogger.logDebug("Deleting customer ID: %d", customerId);
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = DatabaseManager.getInstance().getConnection();
+
+            String query = "DELETE FROM " + AppConstants.Database.TABLE_CUSTOMER + " WHERE IDPelanggan = ?";
+
+            pstmt = conn.prepareStatement(query);
+            pstmt.setInt(1, customerId);
+
+            if (pstmt.executeUpdate() > 0) {
+                EventBus.getInstance().publish(
+                    new DomainEvent.CustomerChanged(DomainEvent.CustomerChanged.Kind.DELETED, customerId, null));
+                AppLogger.logUserAction("SYSTEM", AppConstants.Actions.DELETE, "Customer",
+                                      String.valueOf(customerId), "Customer deleted");
+                return true;
+            } else {
+                AppLogger.logWarning("No customer found with ID: %d for deletion", customerId);
+            }
+
+        } catch (SQLException e) {
+            AppLogger.logDatabaseError("deleteCustomer", AppConstants.Database.TABLE_CUSTOMER, e);
+            AppLogger.logError("Error deleting customer ID: %d", e, customerId);
+        } finally {
+            DatabaseManager.closeResources(conn, pstmt, null);
+        }
+
+        return false;
+    }
+
+    private static void bindCustomer(PreparedStatement pstmt, Customer customer) throws SQLException {
+        pstmt.setString(1, customer.getName());
+        pstmt.setString(2, customer.getAddress());
+        pstmt.setString(3, customer.getInstagramAccount());
+        pstmt.setString(4, customer.getPhoneNumber());
+    }
+
+    /**
+     * Validate customer data
+     */
+    private InputValidator.ValidationResult validateCustomer(Customer customer) {
+        if (!InputValidator.isNotEmpty(customer.getName()) || !InputValidator.isNotEmpty(customer.getAddress())
+                || !InputValidator.isNotEmpty(customer.getInstagramAccount())
+                || !InputValidator.isNotEmpty(customer.getPhoneNumber())) {
+            return new InputValidator.ValidationResult(false, "Data yang Dimasukkan Tidak Lengkap");
+        }
+
+        if (!InputValidator.isValidLength(customer.getName(), 1, AppConstants.Business.MAX_CUSTOMER_NAME_LENGTH)) {
+            return new InputValidator.ValidationResult(false, "Nama pelanggan terlalu panjang");
+        }
+
+        return new InputValidator.ValidationResult(true, "Valid");
+    }
+}
@@ -0,0 +1,125 @@
+package service;
+
+/**
+ * Units in use per day over a run of days, as a segment tree.
+ * Adding to a range of days and reading the busiest day in a range are both
+ * O(log days). Each node keeps the maximum of its subtree including the amount
+ * added to the whole subtree, so additions never have to be pushed down.
+ *
+ * The tree only covers the days from its first day on, sized to the bookings it
+ * was built for; days outside it count as unused. widen doubles the span until
+ * a new range fits, keeping the old tree as one half, so growing costs time in
+ * proportion to the span rather than to the bookings.
+ */
+final class DayUsageTree {
+
+    private final int firstDay;
+    private final int leaves;
+    // Indexed from 1; children of node i are 2i and 2i+1
+    private final int[] max;
+    private final int[] added;
+
+    /**
+     * @param firstDay first day bucket covered
+     * @param days number of day buckets covered; rounded up to a power of two
+     */
+    DayUsageTree(int firstDay, int days) {
+        int size = 1;
+        while (size < days) {
+            size <<= 1;
+        }
+        this.firstDay = firstDay;
+        leaves = size;
+        max = new int[2 * size];
+        added = new int[2 * size];
+    }
+
+    private DayUsageTree(int firstDay, int leaves, int[] max, int[] added) {
+        this.firstDay = firstDay;
+        this.leaves = leaves;
+        this.max = max;
+        this.added = added;
+    }
+
+    /**
+     * Whether every day from first to last is inside the tree
+     */
+    boolean covers(int first, int last) {
+        return first >= firstDay && last < firstDay + leaves;
+    }
+
+    /**
+     * A tree with the same usage that also covers first to last, made by doubling
+     * the span towards the range as often as needed; this tree if it covers it already
+     */
+    DayUsageTree widen(int first, int last) {
+        DayUsageTree tree = this;
+        while (!tree.covers(first, last)) {
+            tree = tree.doubled(first < tree.firstDay);
+        }
+        return tree;
+    }
+
+    /**
+     * Tree of twice the span with this one as its right half when growing left, else its left half
+     */
+    private DayUsageTree doubled(boolean left) {
+        int[] wideMax = new int[4 * leaves];
+        int[] wideAdded = new int[4 * leaves];
+        // Node i at depth d moves down one level, under the new root's child 2 or 3
+        for (int depthStart = 1; depthStart < 2 * leaves; depthStart <<= 1) {
+            int shift = left ? 2 * depthStart : depthStart;
+            System.arraycopy(max, depthStart, wideMax, depthStart + shift, depthStart);
+            System.arraycopy(added, depthStart, wideAdded, depthStart + shift, depthStart);
+        }
+        wideMax[1] = Math.max(max[1], 0);
+        return new DayUsageTree(left ? firstDay - leaves : firstDay, 2 * leaves, wideMax, wideAdded);
+    }
+
+    /**
+     * Add delta units to every day from first to last, inclusive; the days must be covered
+     */
+    void add(int first, int last, int delta) {
+        add(1, 0, leaves - 1, first - firstDay, last - firstDay, delta);
+    }
+
+    /**
+     * Highest usage on any day from first to last, inclusive
+     */
+    int max(int first, int last) {
+        int from = Math.max(first - firstDay, 0);
+        int to = Math.min(last - firstDay, leaves - 1);
+        return from > to ? 0 : max(1, 0, leaves - 1, from, to);
+    }
+
+    private void add(int node, int low, int high, int first, int last, int delta) {
+        if (first <= low && high <= last) {
+            max[node] += delta;
+            added[node] += delta;
+            return;
+        }
+        int mid = (low + high) >>> 1;
+        if (first <= mid) {
+            add(2 * node, low, mid, first, last, delta);
+        }
+        if (last > mid) {
+            add(2 * node + 1, mid + 1, high, first, last, delta);
+        }
+        max[node] = Math.max(max[2 * node], max[2 * node + 1]) + added[node];
+    }
+
+    private int max(int node, int low, int high, int first, int last) {
+        if (first <= low && high <= last) {
+            return max[node];
+        }
+        int mid = (low + high) >>> 1;
+        int best = Integer.MIN_VALUE;
+        if (first <= mid) {
+            best = max(2 * node, low, mid, first, last);
+        }
+        if (last > mid) {
+            best = Math.max(best, max(2 * node + 1, mid + 1, high, first, last));
+        }
+        return best + added[node];
+    }
+}
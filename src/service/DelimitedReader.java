@@ -0,0 +1,114 @@
+package service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads CSV or TSV records one at a time. Fields may be quoted with "; a quoted
+ * field can contain the delimiter, line breaks and doubled quotes. Lines may end
+ * with \n or \r\n, and blank lines are skipped.
+ */
+final class DelimitedReader {
+
+    private final Reader in;
+    private final char delimiter;
+    private final StringBuilder field = new StringBuilder(64);
+    private int line = 1;
+    private int recordLine;
+    private int pushedBack = -2;
+
+    /**
+     * @param in read through as it is consumed; wrap it in a BufferedReader
+     */
+    DelimitedReader(Reader in, char delimiter) {
+        this.in = in;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Next record's fields, or null at the end of the input
+     */
+    List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>(8);
+        field.setLength(0);
+        recordLine = line;
+        boolean quoted = false;
+        boolean started = false;
+
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                if (quoted) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (!started) {
+                    return null;
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(following);
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        unread(following);
+                    }
+                }
+                line++;
+                if (started) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+                // Blank line: the record starts on the next one
+                recordLine = line;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+                started = true;
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+                started = true;
+            } else {
+                field.append((char) c);
+                started = true;
+            }
+        }
+    }
+
+    /**
+     * Line on which the record last returned by next() starts, counting from 1
+     */
+    int getRecordLine() {
+        return recordLine;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return in.read();
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+}
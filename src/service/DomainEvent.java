@@ -0,0 +1,217 @@
+package service;
+
+import model.Costume;
+import model.Customer;
+import model.Rental;
+import util.EventBus;
+
+/**
+ * Changes published by the services on the EventBus after their transaction commits.
+ * Screens subscribe to apply the change to their tables instead of reloading them.
+ */
+public abstract class DomainEvent {
+
+    private DomainEvent() {}
+
+    /**
+     * A costume was saved, deleted, or its stock changed
+     */
+    public static final class CostumeChanged extends DomainEvent implements EventBus.Coalescing {
+
+        public enum Kind { SAVED, DELETED, STOCK }
+
+        private final Kind kind;
+        private final int costumeId;
+        private final Costume costume;
+        private final int stock;
+
+        private CostumeChanged(Kind kind, int costumeId, Costume costume, int stock) {
+            this.kind = kind;
+            this.costumeId = costumeId;
+            this.costume = costume != null ? costume.copy() : null;
+            this.stock = stock;
+        }
+
+        static CostumeChanged saved(Costume costume) {
+            return new CostumeChanged(Kind.SAVED, costume.getCostumeId(), costume, costume.getStock());
+        }
+
+        static CostumeChanged deleted(int costumeId) {
+            return new CostumeChanged(Kind.DELETED, costumeId, null, 0);
+        }
+
+        /**
+         * @param costume the costume with its new stock if the catalog cache had it, otherwise null
+         */
+        static CostumeChanged stock(int costumeId, int stock, Costume costume) {
+            return new CostumeChanged(Kind.STOCK, costumeId, costume, stock);
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public int getCostumeId() {
+            return costumeId;
+        }
+
+        /**
+         * The costume as stored; null for deletions and for stock changes of uncached costumes
+         */
+        public Costume getCostume() {
+            return costume != null ? costume.copy() : null;
+        }
+
+        public int getStock() {
+            return stock;
+        }
+
+        @Override
+        public Object coalesceKey() {
+            return "kostum:" + costumeId;
+        }
+
+        @Override
+        public boolean supersedes(Object earlier) {
+            // A bare stock change cannot stand in for a save that also changed other columns
+            return kind != Kind.STOCK || costume != null
+                || ((CostumeChanged) earlier).kind == Kind.STOCK;
+        }
+
+        @Override
+        public String toString() {
+            return "CostumeChanged[" + kind + ", " + costumeId + "]";
+        }
+    }
+
+    /**
+     * Costumes were added in bulk. Too many to apply row by row: reload the catalog.
+     */
+    public static final class CostumesImported extends DomainEvent {
+
+        private final int count;
+
+        CostumesImported(int count) {
+            this.count = count;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return "CostumesImported[" + count + "]";
+        }
+    }
+
+    /**
+     * Rows of a table were edited by a screen that writes to it directly rather than
+     * through a service; other screens showing the table reload it
+     */
+    public static final class TableEdited extends DomainEvent {
+
+        private final String table;
+
+        public TableEdited(String table) {
+            this.table = table;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        @Override
+        public String toString() {
+            return "TableEdited[" + table + "]";
+        }
+    }
+
+    /**
+     * A rental was recorded; its stock change is published separately as CostumeChanged
+     */
+    public static final class RentalCreated extends DomainEvent {
+
+        private final Rental rental;
+
+        RentalCreated(Rental rental) {
+            this.rental = rental;
+        }
+
+        /**
+         * The rental as saved, with its generated ID. Read-only.
+         */
+        public Rental getRental() {
+            return rental;
+        }
+
+        @Override
+        public String toString() {
+            return "RentalCreated[" + rental.getRentalId() + "]";
+        }
+    }
+
+    /**
+     * A rental was returned: moved to the return history and its stock given back
+     */
+    public static final class RentalReturned extends DomainEvent {
+
+        private final ReturnResult result;
+
+        RentalReturned(ReturnResult result) {
+            this.result = result;
+        }
+
+        public ReturnResult getResult() {
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "RentalReturned[" + result.getRentalId() + "]";
+        }
+    }
+
+    /**
+     * A customer was saved or deleted
+     */
+    public static final class CustomerChanged extends DomainEvent implements EventBus.Coalescing {
+
+        public enum Kind { SAVED, DELETED }
+
+        private final Kind kind;
+        private final int customerId;
+        private final Customer customer;
+
+        CustomerChanged(Kind kind, int customerId, Customer customer) {
+            this.kind = kind;
+            this.customerId = customerId;
+            this.customer = customer;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public int getCustomerId() {
+            return customerId;
+        }
+
+        /**
+         * The customer as stored; null for deletions. Read-only.
+         */
+        public Customer getCustomer() {
+            return customer;
+        }
+
+        @Override
+        public Object coalesceKey() {
+            return "pelanggan:" + customerId;
+        }
+
+        @Override
+        public String toString() {
+            return "CustomerChanged[" + kind + ", " + customerId + "]";
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package service;
+
+import code.StreamingQuery;
+import util.AppConstants;
+import util.AppLogger;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * Export Service - writes full rental and return history as CSV.
+ * Rows are streamed from the database straight into the writer, so heap use
+ * stays the same however much history there is.
+ */
+public class ExportService {
+
+    // Exported columns, key first; also the CSV header
+    private static final String[] RENTAL_COLUMNS = {
+        "IDRent", "IDKostum", "NamaKarakter", "NamaPelanggan", "TanggalPeminjaman", "TanggalPengembalian",
+        "BiayaRental", "Ekspedisi", "Resi", "Jumlah"
+    };
+
+    private static final String[] RETURN_COLUMNS = {
+        "IDPengembalian", "IDKostum", "NamaKarakter", "NamaPelanggan", "Keterlambatan", "Denda", "PembayaranDenda",
+        "EkspedisiPengembalian", "ResiPengembalian", "Jumlah"
+    };
+
+    private static ExportService instance;
+
+    private ExportService() {}
+
+    public static synchronized ExportService getInstance() {
+        if (instance == null) {
+            instance = new ExportService();
+        }
+        return instance;
+    }
+
+    /**
+     * Write every rental to a UTF-8 CSV file
+     * @return number of rentals written, or -1 if the export failed
+     */
+    public long exportRentals(File file) {
+        return exportToFile(file, AppConstants.Database.TABLE_RENTAL, RENTAL_COLUMNS);
+    }
+
+    /**
+     * Write every rental as CSV. The writer is flushed but not closed.
+     * @return number of rentals written, or -1 if the export failed
+     */
+    public long exportRentals(Writer out) {
+        return export(out, AppConstants.Database.TABLE_RENTAL, RENTAL_COLUMNS);
+    }
+
+    /**
+     * Write every processed return to a UTF-8 CSV file
+     * @return number of returns written, or -1 if the export failed
+     */
+    public long exportReturns(File file) {
+        return exportToFile(file, AppConstants.Database.TABLE_RETURN, RETURN_COLUMNS);
+    }
+
+    /**
+     * Write every processed return as CSV. The writer is flushed but not closed.
+     * @return number of returns written, or -1 if the export failed
+     */
+    public long exportReturns(Writer out) {
+        return export(out, AppConstants.Database.TABLE_RETURN, RETURN_COLUMNS);
+    }
+
+    private long exportToFile(File file, String table, String[] columns) {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            return export(out, table, columns);
+        } catch (IOException e) {
+            AppLogger.logError("Error writing %s export to %s", e, table, file);
+            return -1;
+        }
+    }
+
+    private long export(Writer out, String table, String[] columns) {
+        long start = System.currentTimeMillis();
+        String query = "SELECT " + String.join(", ", columns) + " FROM " + table + " ORDER BY " + columns[0];
+        StringBuilder line = new StringBuilder(256);
+
+        try {
+            for (int i = 0; i < columns.length; i++) {
+                appendField(line, columns[i], i == 0);
+            }
+            writeLine(out, line);
+
+            long rows = StreamingQuery.forEach(query, row -> {
+                for (int i = 1; i <= columns.length; i++) {
+                    Object value = row.getObject(i);
+                    appendField(line, value instanceof BigDecimal ? ((BigDecimal) value).toPlainString()
+                                    : value == null ? "" : value.toString(), i == 1);
+                }
+                writeLine(out, line);
+            });
+            out.flush();
+
+            long duration = System.currentTimeMillis() - start;
+            AppLogger.logPerformance("Export " + table, duration);
+            AppLogger.logUserAction("SYSTEM", AppConstants.Actions.EXPORT,
+                                  String.format("Exported %d %s rows in %d ms", rows, table, duration));
+            return rows;
+
+        } catch (SQLException e) {
+            AppLogger.logDatabaseError("export", table, e);
+            AppLogger.logError("Error exporting %s", e, table);
+        } catch (UncheckedIOException | IOException e) {
+            AppLogger.logError("Error writing %s export", e, table);
+        }
+        return -1;
+    }
+
+    private static void writeLine(Writer out, StringBuilder line) {
+        try {
+            line.append("\r\n");
+            out.append(line);
+            line.setLength(0);
+        } catch (IOException e) {
+            // Surfaces through StreamingQuery.forEach, which closes the result set on the way out
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Append one CSV field, quoting it when it contains a separator, quote or line break
+     */
+    private static void appendField(StringBuilder line, String value, boolean first) {
+        if (!first) {
+            line.append(',');
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,109 @@
+package service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: how many rows were stored and why the others were not
+ */
+public class ImportResult {
+
+    // Errors kept for the report; rejected rows beyond this are only counted
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final List<RowError> errors = new ArrayList<>();
+    private int imported;
+    private int rejected;
+    private long durationMillis;
+
+    ImportResult() {}
+
+    void addImported(int count) {
+        imported += count;
+    }
+
+    void reject(int line, String message) {
+        rejected++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public boolean hasErrors() {
+        return rejected > 0;
+    }
+
+    /**
+     * Rejected rows in file order, at most MAX_REPORTED_ERRORS of them
+     */
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * Write the rejected rows as CSV (line number, reason). The writer is flushed but not closed.
+     */
+    public void writeErrorReport(Writer out) throws IOException {
+        out.write("Baris,Kesalahan\r\n");
+        for (RowError error : errors) {
+            out.write(error.getLine() + ",\"" + error.getMessage().replace("\"", "\"\"") + "\"\r\n");
+        }
+        if (rejected > errors.size()) {
+            out.write(",\"" + (rejected - errors.size()) + " baris lain ditolak\"\r\n");
+        }
+        out.flush();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ImportResult[imported=%d, rejected=%d, %d ms]", imported, rejected, durationMillis);
+    }
+
+    /**
+     * A row that was not imported
+     */
+    public static final class RowError {
+        private final int line;
+        private final String message;
+
+        RowError(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        /**
+         * Line in the source file where the row starts, counting the header as line 1
+         */
+        public int getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "Baris " + line + ": " + message;
+        }
+    }
+}
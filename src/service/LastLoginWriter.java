@@ -0,0 +1,142 @@
+package service;
+
+import code.DatabaseManager;
+import util.AppConstants;
+import util.AppLogger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind for user.last_login. Logins only record the time in memory;
+ * repeated logins of the same user before the next flush collapse into one
+ * update, and a background thread writes everything pending in a single JDBC
+ * batch at most FLUSH_DELAY_MS after the first login it has not written yet.
+ * Whatever is still pending is written on logout and, through an AppLogger
+ * shutdown task, before the log handlers close at exit.
+ */
+class LastLoginWriter {
+
+    private final ConcurrentHashMap<Integer, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler;
+    private final long delayMillis;
+
+    LastLoginWriter(long delayMillis) {
+        this.delayMillis = delayMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "last-login-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        AppLogger.addShutdownTask(this::shutdown);
+    }
+
+    /**
+     * Remember a login; the newest time per user wins
+     */
+    void record(int userId, LocalDateTime loginTime) {
+        pending.merge(userId, loginTime, (old, now) -> now.isAfter(old) ? now : old);
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.schedule(this::flush, delayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the shutdown flush picks it up
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Write whatever is pending now on the background thread, e.g. at logout
+     */
+    void flushSoon() {
+        if (!pending.isEmpty()) {
+            try {
+                scheduler.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the shutdown flush picks it up
+            }
+        }
+    }
+
+    int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Write all pending updates in one batch
+     * @return number of users written
+     */
+    synchronized int flush() {
+        // Clear the flag first so a login arriving during the write schedules the next flush
+        flushScheduled.set(false);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        List<Map.Entry<Integer, LocalDateTime>> batch = new ArrayList<>();
+        for (Map.Entry<Integer, LocalDateTime> entry : pending.entrySet()) {
+            batch.add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = DatabaseManager.getInstance().getConnection();
+
+            // The guard keeps an older time from overwriting a newer one written by another terminal
+            String query = "UPDATE " + AppConstants.Database.TABLE_USER +
+                          " SET last_login = ? WHERE user_id = ? AND (last_login IS NULL OR last_login < ?)";
+
+            pstmt = conn.prepareStatement(query);
+            for (Map.Entry<Integer, LocalDateTime> entry : batch) {
+                Timestamp time = Timestamp.valueOf(entry.getValue());
+                pstmt.setTimestamp(1, time);
+                pstmt.setInt(2, entry.getKey());
+                pstmt.setTimestamp(3, time);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+
+            // Only drop what was written; a newer login recorded meanwhile stays pending
+            for (Map.Entry<Integer, LocalDateTime> entry : batch) {
+                pending.remove(entry.getKey(), entry.getValue());
+            }
+            AppLogger.logDebug("Wrote last login of %d users", batch.size());
+            return batch.size();
+
+        } catch (SQLException e) {
+            AppLogger.logDatabaseError("flushLastLogin", AppConstants.Database.TABLE_USER, e);
+            // Entries stay pending; try again after the next delay
+            if (!pending.isEmpty() && flushScheduled.compareAndSet(false, true) && !scheduler.isShutdown()) {
+                scheduler.schedule(this::flush, delayMillis, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            DatabaseManager.closeResources(conn, pstmt, null);
+        }
+
+        return 0;
+    }
+
+    /**
+     * Stop the background thread and write whatever is still pending
+     */
+    void shutdown() {
+        scheduler.shutdownNow();
+        flush();
+    }
+}
@@ -0,0 +1,203 @@
+package service;
+
+import util.AppConstants;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks failed logins per username and locks a username out once it reaches
+ * MAX_LOGIN_ATTEMPTS failures within LOCKOUT_DURATION. Failures are counted in
+ * a sliding window of one-minute buckets, so old failures age out on their own.
+ * Everything is in memory and checked before any database or hashing work.
+ *
+ * Expired entries are swept at most once per SWEEP_INTERVAL_MILLIS, and no more
+ * than MAX_TRACKED usernames are held. When a new username finds the map full,
+ * expired entries are swept at once and then the entries that failed longest ago
+ * and are not locked out are evicted. If every entry is locked out, usernames that
+ * are not tracked count as locked out until the first lockout ends, so a burst of
+ * random usernames never switches the throttle off.
+ */
+class LoginThrottle {
+
+    private static final long BUCKET_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long SWEEP_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    // Upper bound on tracked usernames, e.g. during a burst of random usernames
+    private static final int MAX_TRACKED = 50_000;
+    // Share of MAX_TRACKED evicted at once, so a full map is not scanned on every new username
+    private static final int EVICT_BATCH = MAX_TRACKED / 16;
+
+    private final ConcurrentHashMap<String, Attempts> attempts = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.currentTimeMillis());
+    // While the map is full of locked out entries, untracked usernames are locked out until then
+    private volatile long fullUntil;
+    private final int maxAttempts;
+    private final long windowMillis;
+
+    LoginThrottle() {
+        this(AppConstants.System.MAX_LOGIN_ATTEMPTS,
+             TimeUnit.SECONDS.toMillis(AppConstants.System.LOCKOUT_DURATION));
+    }
+
+    LoginThrottle(int maxAttempts, long windowMillis) {
+        this.maxAttempts = maxAttempts;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Milliseconds until the username may try again, or 0 if it is not locked out
+     */
+    long lockedFor(String username) {
+        long now = System.currentTimeMillis();
+        Attempts entry = attempts.get(key(username));
+        if (entry != null) {
+            return entry.lockedFor(now);
+        }
+        return attempts.size() >= MAX_TRACKED ? Math.max(0, fullUntil - now) : 0;
+    }
+
+    /**
+     * Count a failed attempt
+     * @return true if this failure locked the username out
+     */
+    boolean recordFailure(String username) {
+        long now = System.currentTimeMillis();
+        sweepIfDue(now);
+        String key = key(username);
+        Attempts entry = attempts.get(key);
+        if (entry == null) {
+            if (attempts.size() >= MAX_TRACKED && !makeRoom(now)) {
+                return false;
+            }
+            entry = attempts.computeIfAbsent(key, k -> new Attempts());
+        }
+        return entry.fail(now);
+    }
+
+    /**
+     * Forget the failures of a username after it logged in successfully
+     */
+    void recordSuccess(String username) {
+        attempts.remove(key(username));
+    }
+
+    /**
+     * Drop expired entries if the last sweep was SWEEP_INTERVAL_MILLIS ago; only one caller does it
+     */
+    private void sweepIfDue(long now) {
+        long last = lastSweep.get();
+        if (now - last >= SWEEP_INTERVAL_MILLIS && lastSweep.compareAndSet(last, now)) {
+            attempts.values().removeIf(entry -> entry.isExpired(now));
+        }
+    }
+
+    /**
+     * Free room in a full map: sweep expired entries, then evict the unlocked entries
+     * that failed longest ago
+     * @return false if every entry is locked out and nothing could be evicted
+     */
+    private synchronized boolean makeRoom(long now) {
+        if (attempts.size() < MAX_TRACKED) {
+            return true;
+        }
+        if (now < fullUntil) {
+            return false;
+        }
+        lastSweep.set(now);
+        attempts.values().removeIf(entry -> entry.isExpired(now));
+        if (attempts.size() < MAX_TRACKED) {
+            return true;
+        }
+
+        List<Map.Entry<String, Long>> unlocked = new ArrayList<>();
+        long firstUnlock = Long.MAX_VALUE;
+        for (Map.Entry<String, Attempts> e : attempts.entrySet()) {
+            long lockedFor = e.getValue().lockedFor(now);
+            if (lockedFor == 0) {
+                unlocked.add(new AbstractMap.SimpleEntry<>(e.getKey(), e.getValue().lastFailure()));
+            } else {
+                firstUnlock = Math.min(firstUnlock, now + lockedFor);
+            }
+        }
+        if (unlocked.isEmpty()) {
+            fullUntil = firstUnlock;
+            return false;
+        }
+        unlocked.sort(Map.Entry.comparingByValue());
+        int evict = Math.min(EVICT_BATCH, unlocked.size());
+        for (int i = 0; i < evict; i++) {
+            attempts.remove(unlocked.get(i).getKey());
+        }
+        return true;
+    }
+
+    int size() {
+        return attempts.size();
+    }
+
+    private static String key(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private final class Attempts {
+        // Ring of per-minute failure counts; starts[i] is the bucket number the count belongs to
+        private final long[] starts;
+        private final int[] counts;
+        private long lockedUntil;
+        private long lastFailure;
+
+        Attempts() {
+            int buckets = (int) Math.max(1, (windowMillis + BUCKET_MILLIS - 1) / BUCKET_MILLIS);
+            starts = new long[buckets];
+            counts = new int[buckets];
+        }
+
+        synchronized long lockedFor(long now) {
+            return Math.max(0, lockedUntil - now);
+        }
+
+        synchronized boolean fail(long now) {
+            long bucket = now / BUCKET_MILLIS;
+            int slot = (int) (bucket % counts.length);
+            if (starts[slot] != bucket) {
+                starts[slot] = bucket;
+                counts[slot] = 0;
+            }
+            counts[slot]++;
+            lastFailure = now;
+
+            if (now < lockedUntil) {
+                return false;
+            }
+            int recent = 0;
+            long oldest = bucket - counts.length + 1;
+            for (int i = 0; i < counts.length; i++) {
+                if (starts[i] >= oldest) {
+                    recent += counts[i];
+                }
+            }
+            if (recent >= maxAttempts) {
+                lockedUntil = now + windowMillis;
+                // Start counting afresh once the lockout ends
+                Arrays.fill(counts, 0);
+                return true;
+            }
+            return false;
+        }
+
+        synchronized long lastFailure() {
+            return lastFailure;
+        }
+
+        synchronized boolean isExpired(long now) {
+            return now >= lockedUntil && now - lastFailure >= windowMillis;
+        }
+    }
+}
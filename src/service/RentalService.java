@@ -0,0 +1,154 @@
+package service;
+
+import code.DatabaseManager;
+import code.InputValidator;
+import model.Rental;
+import util.AppConstants;
+import util.AppLogger;
+import util.EventBus;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Rental Service - handles rental transactions
+ */
+public class RentalService {
+
+    private static RentalService instance;
+
+    private RentalService() {}
+
+    public static synchronized RentalService getInstance() {
+        if (instance == null) {
+            instance = new RentalService();
+        }
+        return instance;
+    }
+
+    /**
+     * Record a rental and take its quantity out of stock in one transaction.
+     * The stock decrement is conditional, so the rental is only written when
+     * enough stock is left; otherwise nothing changes.
+     * @param rental the rental to save; its ID and status are set on success
+     * @return the generated rental ID, or -1 if the rental was rejected or the transaction failed
+     */
+    public int createRental(Rental rental) {
+        AppLogger.logDebug("Creating rental of %d x costume ID %d for %s",
+                         rental.getQuantity(), rental.getCostumeId(), rental.getCustomerName());
+
+        InputValidator.ValidationResult validation = validateRental(rental);
+        if (!validation.isValid()) {
+            AppLogger.logWarning("Invalid rental data: %s", validation.getMessage());
+            return -1;
+        }
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseManager.getInstance().getConnection();
+            conn.setAutoCommit(false);
+
+            // Take the stock first: it row-locks the costume and fails fast when stock is short
+            int remaining = CostumeService.getInstance().decrementStock(conn, rental.getCostumeId(), rental.getQuantity());
+            if (remaining < 0) {
+                conn.rollback();
+                AppLogger.logWarning("Insufficient stock or unknown costume ID %d: requested %d",
+                                   rental.getCostumeId(), rental.getQuantity());
+                return -1;
+            }
+
+            String query = "INSERT INTO " + AppConstants.Database.TABLE_RENTAL +
+                          " (IDKostum, NamaKarakter, NamaPelanggan, TanggalPeminjaman, TanggalPengembalian, " +
+                          "BiayaRental, Ekspedisi, Resi, Jumlah) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+            pstmt = conn.prepareStatement(query, PreparedStatement.RETURN_GENERATED_KEYS);
+            pstmt.setInt(1, rental.getCostumeId());
+            pstmt.setString(2, rental.getCostumeName());
+            pstmt.setString(3, rental.getCustomerName());
+            pstmt.setDate(4, java.sql.Date.valueOf(rental.getRentalDate()));
+            pstmt.setDate(5, java.sql.Date.valueOf(rental.getReturnDate()));
+            pstmt.setBigDecimal(6, rental.getTotalCost());
+            pstmt.setString(7, rental.getShippingMethod());
+            pstmt.setString(8, rental.getTrackingNumber());
+            pstmt.setInt(9, rental.getQuantity());
+
+            pstmt.executeUpdate();
+
+            rs = pstmt.getGeneratedKeys();
+            if (!rs.next()) {
+                conn.rollback();
+                AppLogger.logError("No rental ID generated for costume ID: " + rental.getCostumeId());
+                return -1;
+            }
+            int rentalId = rs.getInt(1);
+
+            conn.commit();
+
+            rental.setRentalId(rentalId);
+            rental.confirmRental();
+            // Before the stock drops, so units owned (stock plus units out) never reads low
+            AvailabilityCalendar.getInstance().rentalCreated(rentalId, rental.getCostumeId(), rental.getRentalDate(),
+                                                             rental.getReturnDate(), rental.getQuantity());
+            CostumeService.getInstance().stockChanged(rental.getCostumeId(), remaining);
+            EventBus.getInstance().publish(new DomainEvent.RentalCreated(rental));
+
+            AppLogger.logUserAction("SYSTEM", AppConstants.Actions.CREATE, "Rental", String.valueOf(rentalId),
+                                  String.format("Rented %d x %s to %s, %d left in stock", rental.getQuantity(),
+                                              rental.getCostumeName(), rental.getCustomerName(), remaining));
+            return rentalId;
+
+        } catch (SQLException e) {
+            rollbackQuietly(conn);
+            AppLogger.logDatabaseError("createRental", AppConstants.Database.TABLE_RENTAL, e);
+            AppLogger.logError("Error creating rental for costume ID: %d", e, rental.getCostumeId());
+        } finally {
+            DatabaseManager.closeResources(conn, pstmt, rs);
+        }
+
+        return -1;
+    }
+
+    static void rollbackQuietly(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException e) {
+                System.err.println("Error rolling back transaction: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Validate rental data
+     */
+    private InputValidator.ValidationResult validateRental(Rental rental) {
+        if (rental.getCostumeId() <= 0) {
+            return new InputValidator.ValidationResult(false, "Kostum belum dipilih");
+        }
+
+        if (!InputValidator.isNotEmpty(rental.getCustomerName())) {
+            return new InputValidator.ValidationResult(false, "Pelanggan belum dipilih");
+        }
+
+        if (rental.getQuantity() <= 0) {
+            return new InputValidator.ValidationResult(false, "Jumlah tidak valid");
+        }
+
+        if (rental.getRentalDate() == null || rental.getReturnDate() == null
+                || rental.getReturnDate().isBefore(rental.getRentalDate())) {
+            return new InputValidator.ValidationResult(false, "Tanggal rental tidak valid");
+        }
+
+        if (rental.getTotalCost() == null || rental.getTotalCost().compareTo(BigDecimal.ZERO) < 0) {
+            return new InputValidator.ValidationResult(false, "Biaya rental tidak valid");
+        }
+
+        return new InputValidator.ValidationResult(true, "Valid");
+    }
+}
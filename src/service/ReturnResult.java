@@ -0,0 +1,96 @@
+package service;
+
+import java.math.BigDecimal;
+
+/**
+ * Outcome of a processed return: what was written, so screens can update
+ * their tables in place instead of reloading them
+ */
+public class ReturnResult {
+    private final int returnId;
+    private final int rentalId;
+    private final int costumeId;
+    private final String costumeName;
+    private final String customerName;
+    private final int quantity;
+    private final long daysLate;
+    private final BigDecimal lateFee;
+    private final String finePayment;
+    private final String returnShipping;
+    private final String returnTracking;
+
+    ReturnResult(int returnId, int rentalId, int costumeId, String costumeName, String customerName,
+                 int quantity, long daysLate, BigDecimal lateFee, String finePayment,
+                 String returnShipping, String returnTracking) {
+        this.returnId = returnId;
+        this.rentalId = rentalId;
+        this.costumeId = costumeId;
+        this.costumeName = costumeName;
+        this.customerName = customerName;
+        this.quantity = quantity;
+        this.daysLate = daysLate;
+        this.lateFee = lateFee;
+        this.finePayment = finePayment;
+        this.returnShipping = returnShipping;
+        this.returnTracking = returnTracking;
+    }
+
+    /** Generated IDPengembalian */
+    public int getReturnId() {
+        return returnId;
+    }
+
+    /** IDRent of the rental row that was removed */
+    public int getRentalId() {
+        return rentalId;
+    }
+
+    public int getCostumeId() {
+        return costumeId;
+    }
+
+    public String getCostumeName() {
+        return costumeName;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    /** Units put back into stock */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public long getDaysLate() {
+        return daysLate;
+    }
+
+    public BigDecimal getLateFee() {
+        return lateFee;
+    }
+
+    public String getFinePayment() {
+        return finePayment;
+    }
+
+    public String getReturnShipping() {
+        return returnShipping;
+    }
+
+    public String getReturnTracking() {
+        return returnTracking;
+    }
+
+    @Override
+    public String toString() {
+        return "ReturnResult{" +
+                "returnId=" + returnId +
+                ", rentalId=" + rentalId +
+                ", costumeId=" + costumeId +
+                ", quantity=" + quantity +
+                ", daysLate=" + daysLate +
+                ", lateFee=" + lateFee +
+                '}';
+    }
+}
@@ -0,0 +1,160 @@
+package service;
+
+import code.DatabaseManager;
+import model.Rental;
+import util.AppConstants;
+import util.AppLogger;
+import util.EventBus;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Return Service - handles costume returns
+ */
+public class ReturnService {
+
+    public static final String NO_FINE = "Tidak Denda";
+
+    private static ReturnService instance;
+
+    private ReturnService() {}
+
+    public static synchronized ReturnService getInstance() {
+        if (instance == null) {
+            instance = new ReturnService();
+        }
+        return instance;
+    }
+
+    /**
+     * Process the return of a rental as of today. In one transaction the rental
+     * row is locked, the late fee is calculated from its due date, the return
+     * is recorded in pengembalian, the quantity goes back into stock and the
+     * rental row is deleted.
+     * @param rentalId IDRent of the rental being returned
+     * @param finePayment fine payment status; ignored when there is no fine
+     * @param returnShipping courier used to send the costume back
+     * @param returnTracking tracking number of the return shipment
+     * @return what was written, or null if the rental does not exist or the transaction failed
+     */
+    public ReturnResult processReturn(int rentalId, String finePayment, String returnShipping, String returnTracking) {
+        AppLogger.logDebug("Processing return of rental ID: %d", rentalId);
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseManager.getInstance().getConnection();
+            conn.setAutoCommit(false);
+
+            // Lock the rental so a second counter cannot return it twice
+            String selectQuery = "SELECT IDKostum, NamaKarakter, NamaPelanggan, TanggalPeminjaman, TanggalPengembalian, " +
+                               "BiayaRental, Jumlah FROM " + AppConstants.Database.TABLE_RENTAL +
+                               " WHERE IDRent = ? FOR UPDATE";
+            pstmt = conn.prepareStatement(selectQuery);
+            pstmt.setInt(1, rentalId);
+            rs = pstmt.executeQuery();
+
+            if (!rs.next()) {
+                conn.rollback();
+                AppLogger.logWarning("Return requested for unknown or already returned rental ID: %d", rentalId);
+                return null;
+            }
+            Rental rental = mapResultSetToRental(rs, rentalId);
+            DatabaseManager.closeResources(null, pstmt, rs);
+            rs = null;
+
+            rental.processReturn();
+            rental.calculateLateFee(AppConstants.Business.DAILY_LATE_FEE);
+            String payment = rental.getLateFee().signum() == 0 ? NO_FINE : finePayment;
+
+            String insertQuery = "INSERT INTO " + AppConstants.Database.TABLE_RETURN +
+                               " (IDKostum, NamaKarakter, NamaPelanggan, Keterlambatan, Denda, PembayaranDenda, " +
+                               "EkspedisiPengembalian, ResiPengembalian, Jumlah) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+            pstmt = conn.prepareStatement(insertQuery, PreparedStatement.RETURN_GENERATED_KEYS);
+            pstmt.setInt(1, rental.getCostumeId());
+            pstmt.setString(2, rental.getCostumeName());
+            pstmt.setString(3, rental.getCustomerName());
+            pstmt.setLong(4, rental.getDaysLate());
+            pstmt.setBigDecimal(5, rental.getLateFee());
+            pstmt.setString(6, payment);
+            pstmt.setString(7, returnShipping);
+            pstmt.setString(8, returnTracking);
+            pstmt.setInt(9, rental.getQuantity());
+            pstmt.executeUpdate();
+
+            rs = pstmt.getGeneratedKeys();
+            if (!rs.next()) {
+                conn.rollback();
+                AppLogger.logError("No return ID generated for rental ID: " + rentalId);
+                return null;
+            }
+            int returnId = rs.getInt(1);
+            DatabaseManager.closeResources(null, pstmt, rs);
+            rs = null;
+
+            int stock = CostumeService.getInstance().incrementStock(conn, rental.getCostumeId(), rental.getQuantity());
+
+            String deleteQuery = "DELETE FROM " + AppConstants.Database.TABLE_RENTAL + " WHERE IDRent = ?";
+            pstmt = conn.prepareStatement(deleteQuery);
+            pstmt.setInt(1, rentalId);
+            pstmt.executeUpdate();
+
+            conn.commit();
+
+            if (stock >= 0) {
+                CostumeService.getInstance().stockChanged(rental.getCostumeId(), stock);
+            } else {
+                AppLogger.logWarning("Returned rental ID %d refers to deleted costume ID %d; stock not restored",
+                                   rentalId, rental.getCostumeId());
+            }
+            AvailabilityCalendar.getInstance().rentalReturned(rentalId);
+
+            AppLogger.logUserAction("SYSTEM", "RETURN", "Rental", String.valueOf(rentalId),
+                                  String.format("Returned %d x %s from %s, %d days late, fee %s",
+                                              rental.getQuantity(), rental.getCostumeName(),
+                                              rental.getCustomerName(), rental.getDaysLate(),
+                                              rental.getLateFee().toPlainString()));
+
+            ReturnResult result = new ReturnResult(returnId, rentalId, rental.getCostumeId(), rental.getCostumeName(),
+                                    rental.getCustomerName(), rental.getQuantity(), rental.getDaysLate(),
+                                    rental.getLateFee(), payment, returnShipping, returnTracking);
+            EventBus.getInstance().publish(new DomainEvent.RentalReturned(result));
+            return result;
+
+        } catch (SQLException e) {
+            RentalService.rollbackQuietly(conn);
+            AppLogger.logDatabaseError("processReturn", AppConstants.Database.TABLE_RETURN, e);
+            AppLogger.logError("Error processing return for rental ID: %d", e, rentalId);
+        } finally {
+            DatabaseManager.closeResources(conn, pstmt, rs);
+        }
+
+        return null;
+    }
+
+    /**
+     * Map a rental row to a Rental object
+     */
+    private Rental mapResultSetToRental(ResultSet rs, int rentalId) throws SQLException {
+        Rental rental = new Rental();
+        rental.setRentalId(rentalId);
+        rental.setCostumeId(rs.getInt("IDKostum"));
+        rental.setCostumeName(rs.getString("NamaKarakter"));
+        rental.setCustomerName(rs.getString("NamaPelanggan"));
+        java.sql.Date rentalDate = rs.getDate("TanggalPeminjaman");
+        java.sql.Date dueDate = rs.getDate("TanggalPengembalian");
+        rental.setRentalDate(rentalDate != null ? rentalDate.toLocalDate() : null);
+        rental.setReturnDate(dueDate != null ? dueDate.toLocalDate() : null);
+        BigDecimal cost = rs.getBigDecimal("BiayaRental");
+        rental.setRentalCost(cost != null ? cost : BigDecimal.ZERO);
+        rental.setQuantity(rs.getInt("Jumlah"));
+        rental.confirmRental();
+        return rental;
+    }
+}
@@ -0,0 +1,176 @@
+package service;
+
+import model.User;
+
+import java.sql.Timestamp;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small cache of user rows, reachable by username and by user_id.
+ * Callers compare an entry's updated_at and is_active with the database before
+ * every use, so a change made on another terminal takes effect at once; the
+ * cache only saves reading and mapping the full row. Entries not confirmed
+ * within the TTL are evicted. UserService drops entries itself whenever it
+ * changes a user row.
+ */
+class UserPrincipalCache {
+
+    private final ConcurrentHashMap<String, Principal> byUsername = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Principal> byId = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong stale = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    UserPrincipalCache(long ttl, TimeUnit unit) {
+        this.ttlMillis = unit.toMillis(ttl);
+    }
+
+    /**
+     * Cached row for the username, to be checked against the database; null when not cached or expired
+     */
+    Principal get(String username) {
+        return unexpired(byUsername.get(key(username)));
+    }
+
+    /**
+     * Cached row for the user ID, to be checked against the database; null when not cached or expired
+     */
+    Principal get(int userId) {
+        return unexpired(byId.get(userId));
+    }
+
+    /**
+     * The database still holds this version; keep the entry for another TTL
+     */
+    void confirmed(Principal principal) {
+        principal.checkedAt = System.currentTimeMillis();
+        hits.incrementAndGet();
+    }
+
+    /**
+     * The database holds a newer version or no row; drop the entry
+     */
+    void outdated(Principal principal) {
+        stale.incrementAndGet();
+        invalidate(principal.userId);
+    }
+
+    void put(Principal principal) {
+        // Users are few; dropping expired entries here keeps unused ones from lingering
+        long now = System.currentTimeMillis();
+        byId.values().removeIf(entry -> {
+            if (isExpired(entry, now)) {
+                byUsername.remove(key(entry.username), entry);
+                return true;
+            }
+            return false;
+        });
+
+        Principal previous = byId.put(principal.userId, principal);
+        if (previous != null && !key(previous.username).equals(key(principal.username))) {
+            byUsername.remove(key(previous.username), previous);
+        }
+        byUsername.put(key(principal.username), principal);
+    }
+
+    void invalidate(int userId) {
+        Principal removed = byId.remove(userId);
+        if (removed != null) {
+            byUsername.remove(key(removed.username), removed);
+        }
+    }
+
+    void invalidate(String username) {
+        Principal removed = byUsername.remove(key(username));
+        if (removed != null) {
+            byId.remove(removed.userId, removed);
+        }
+    }
+
+    void invalidateAll() {
+        byUsername.clear();
+        byId.clear();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("entries=%d, hits=%d, stale=%d, misses=%d",
+                             byId.size(), hits.get(), stale.get(), misses.get());
+    }
+
+    private Principal unexpired(Principal principal) {
+        if (principal != null && isExpired(principal, System.currentTimeMillis())) {
+            invalidate(principal.userId);
+            principal = null;
+        }
+        if (principal == null) {
+            misses.incrementAndGet();
+        }
+        return principal;
+    }
+
+    private boolean isExpired(Principal principal, long now) {
+        return now - principal.checkedAt >= ttlMillis;
+    }
+
+    private static String key(String username) {
+        // Usernames compare case-insensitively in MySQL's default collation
+        return username == null ? "" : username.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Snapshot of one user row. Immutable apart from the time it was last confirmed.
+     */
+    static final class Principal {
+        final int userId;
+        final String username;
+        final String passwordHash;
+        final String salt;
+        final String email;
+        final String fullName;
+        final User.UserRole role;
+        final boolean active;
+        final Timestamp updatedAt;
+        private volatile long checkedAt = System.currentTimeMillis();
+
+        Principal(int userId, String username, String passwordHash, String salt, String email,
+                  String fullName, User.UserRole role, boolean active, Timestamp updatedAt) {
+            this.userId = userId;
+            this.username = username;
+            this.passwordHash = passwordHash;
+            this.salt = salt;
+            this.email = email;
+            this.fullName = fullName;
+            this.role = role;
+            this.active = active;
+            this.updatedAt = updatedAt;
+        }
+
+        /**
+         * Whether the row still has the version this snapshot was taken at
+         */
+        boolean isVersion(Timestamp version, boolean isActive) {
+            return Objects.equals(updatedAt, version) && active == isActive;
+        }
+
+        /**
+         * New User object for the caller; never shares state with the cache
+         */
+        User toUser() {
+            User user = new User();
+            user.setUserId(userId);
+            user.setUsername(username);
+            user.setEmail(email);
+            user.setFullName(fullName);
+            user.setRole(role);
+            user.setActive(active);
+            return user;
+        }
+    }
+}
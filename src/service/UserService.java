@@ -12,6 +12,11 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * User Service - handles all user-related business logic
@@ -20,7 +25,21 @@ public class UserService {
     
     private static UserService instance;
     
-    private UserService() {}
+    // Password hashing is deliberately slow; keep it off the EDT and bound how many run at once
+    private final ExecutorService verifyExecutor;
+    private final LoginThrottle loginThrottle = new LoginThrottle();
+    private final UserPrincipalCache userCache = 
+        new UserPrincipalCache(AppConstants.Cache.USER_TTL_SECONDS, TimeUnit.SECONDS);
+    private final LastLoginWriter lastLoginWriter = new LastLoginWriter(AppConstants.System.LAST_LOGIN_FLUSH_DELAY_MS);
+    
+    private UserService() {
+        AtomicInteger counter = new AtomicInteger();
+        verifyExecutor = Executors.newFixedThreadPool(AppConstants.System.PASSWORD_VERIFY_THREADS, r -> {
+            Thread t = new Thread(r, "password-verify-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
     
     public static synchronized UserService getInstance() {
         if (instance == null) {
@@ -30,7 +49,16 @@ public class UserService {
     }
     
     /**
-     * Authenticate user login
+     * Authenticate on the password verification pool
+     * @return future completed with the User, or null if authentication failed
+     */
+    public CompletableFuture<User> authenticateAsync(String username, String password) {
+        return CompletableFuture.supplyAsync(() -> authenticate(username, password), verifyExecutor);
+    }
+    
+    /**
+     * Authenticate user login. Blocks for the duration of the password hash;
+     * UI code should use authenticateAsync.
      * @param username The username
      * @param password The plain text password
      * @return User object if authentication successful, null otherwise
@@ -47,55 +75,38 @@ public class UserService {
         // Sanitize input
         username = InputValidator.sanitizeInput(username);
         
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
+        // Locked-out usernames are turned away before any database or hashing work
+        long lockedFor = loginThrottle.lockedFor(username);
+        if (lockedFor > 0) {
+            AppLogger.logLoginAttempt(username, false, "localhost");
+            AppLogger.logSecurityViolation(username, "ACCOUNT_LOCKED", 
+                                         String.format("Login rejected, locked for %d more seconds", lockedFor / 1000));
+            return null;
+        }
         
         try {
-            conn = DatabaseManager.getInstance().getConnection();
+            UserPrincipalCache.Principal principal = findPrincipal(username);
             
-            // Query user with username
-            String query = "SELECT user_id, username, password_hash, salt, email, full_name, role, is_active FROM " +
-                          AppConstants.Database.TABLE_USER + " WHERE username = ? AND is_active = 1";
-            
-            pstmt = conn.prepareStatement(query);
-            pstmt.setString(1, username);
-            
-            rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                String storedPasswordHash = rs.getString("password_hash");
-                String salt = rs.getString("salt");
-                
-                // For backward compatibility, check if we have hashed password
-                boolean authenticated = false;
-                if (storedPasswordHash != null && salt != null) {
-                    // Use secure password verification
-                    authenticated = PasswordSecurity.verifyPassword(password, storedPasswordHash, salt);
-                } else {
-                    // Fallback to plain text comparison (for existing data)
-                    String plainPassword = rs.getString("password"); // Assuming old column name
-                    authenticated = password.equals(plainPassword);
-                    
-                    // TODO: Migrate password to hashed format
-                    if (authenticated) {
-                        AppLogger.logWarning("User %s using plain text password. Consider migration.", username);
-                    }
+            if (principal != null && principal.active) {
+                boolean authenticated = PasswordSecurity.verify(password, principal.passwordHash, principal.salt);
+                if (principal.passwordHash == null) {
+                    AppLogger.logWarning("User %s has no password hash and cannot log in", username);
                 }
                 
                 if (authenticated) {
                     // Create User object
-                    User user = new User();
-                    user.setUserId(rs.getInt("user_id"));
-                    user.setUsername(rs.getString("username"));
-                    user.setEmail(rs.getString("email"));
-                    user.setFullName(rs.getString("full_name"));
-                    user.setActive(rs.getBoolean("is_active"));
+                    User user = principal.toUser();
                     user.updateLastLogin();
                     
-                    // Update last login time
-                    updateLastLogin(user.getUserId());
+                    // Update last login time; written behind, so login does not wait for it
+                    lastLoginWriter.record(user.getUserId(), user.getLastLogin());
+                    
+                    // Upgrade legacy or outdated hashes while the plain password is at hand
+                    if (PasswordSecurity.needsRehash(principal.passwordHash)) {
+                        rehashPassword(user.getUserId(), password);
+                    }
                     
+                    loginThrottle.recordSuccess(username);
                     AppLogger.logLoginAttempt(username, true, "localhost");
                     AppLogger.logUserAction(username, AppConstants.Actions.LOGIN, "User logged in successfully");
                     
@@ -103,20 +114,161 @@ public class UserService {
                 } else {
                     AppLogger.logLoginAttempt(username, false, "localhost");
                     AppLogger.logSecurityViolation(username, "INVALID_PASSWORD", "Invalid password attempt");
+                    recordFailure(username);
                 }
             } else {
                 AppLogger.logLoginAttempt(username, false, "localhost");
                 AppLogger.logSecurityViolation(username, "USER_NOT_FOUND", "Login attempt for non-existent user");
+                recordFailure(username);
             }
             
         } catch (SQLException e) {
             AppLogger.logDatabaseError("authenticate", AppConstants.Database.TABLE_USER, e);
             AppLogger.logError("Database error during authentication for user: %s", e, username);
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Look up an active user by ID, e.g. to re-validate the session user
+     * @return User object, or null if the user does not exist, is inactive or the lookup failed
+     */
+    public User getUserById(int userId) {
+        try {
+            UserPrincipalCache.Principal principal = findPrincipal(userId);
+            return principal != null && principal.active ? principal.toUser() : null;
+        } catch (SQLException e) {
+            AppLogger.logDatabaseError("getUserById", AppConstants.Database.TABLE_USER, e);
+            return null;
+        }
+    }
+    
+    /**
+     * User cache counters for diagnostics
+     */
+    public String getUserCacheStatus() {
+        return userCache.toString();
+    }
+    
+    /**
+     * Cached user row if its version is unchanged, otherwise read from the database.
+     * The version is checked on every call, so password changes and deactivations
+     * made elsewhere apply immediately.
+     */
+    private UserPrincipalCache.Principal findPrincipal(String username) throws SQLException {
+        UserPrincipalCache.Principal cached = userCache.get(username);
+        if (cached != null && isCurrent(cached)) {
+            return cached;
+        }
+        return loadPrincipal("username = ?", username);
+    }
+    
+    private UserPrincipalCache.Principal findPrincipal(int userId) throws SQLException {
+        UserPrincipalCache.Principal cached = userCache.get(userId);
+        if (cached != null && isCurrent(cached)) {
+            return cached;
+        }
+        return loadPrincipal("user_id = ?", userId);
+    }
+    
+    /**
+     * Compare a cached row's updated_at and is_active with the database; cheaper than re-reading the row
+     */
+    private boolean isCurrent(UserPrincipalCache.Principal principal) throws SQLException {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseManager.getInstance().getConnection();
+            
+            String query = "SELECT updated_at, is_active FROM " + AppConstants.Database.TABLE_USER + " WHERE user_id = ?";
+            pstmt = conn.prepareStatement(query);
+            pstmt.setInt(1, principal.userId);
+            
+            rs = pstmt.executeQuery();
+            
+            if (rs.next() && principal.isVersion(rs.getTimestamp("updated_at"), rs.getBoolean("is_active"))) {
+                userCache.confirmed(principal);
+                return true;
+            }
+            userCache.outdated(principal);
+            return false;
+            
         } finally {
             DatabaseManager.closeResources(conn, pstmt, rs);
         }
+    }
+    
+    /**
+     * Read one user row and cache it
+     * @param condition WHERE clause with a single parameter
+     * @return the row, or null if there is none
+     */
+    private UserPrincipalCache.Principal loadPrincipal(String condition, Object value) throws SQLException {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
         
-        return null;
+        try {
+            conn = DatabaseManager.getInstance().getConnection();
+            
+            String query = "SELECT user_id, username, password_hash, salt, email, full_name, role, is_active, updated_at FROM " +
+                          AppConstants.Database.TABLE_USER + " WHERE " + condition;
+            
+            pstmt = conn.prepareStatement(query);
+            pstmt.setObject(1, value);
+            
+            rs = pstmt.executeQuery();
+            
+            if (!rs.next()) {
+                return null;
+            }
+            
+            UserPrincipalCache.Principal principal = new UserPrincipalCache.Principal(
+                rs.getInt("user_id"),
+                rs.getString("username"),
+                rs.getString("password_hash"),
+                rs.getString("salt"),
+                rs.getString("email"),
+                rs.getString("full_name"),
+                parseRole(rs.getString("role")),
+                rs.getBoolean("is_active"),
+                rs.getTimestamp("updated_at"));
+            userCache.put(principal);
+            return principal;
+            
+        } finally {
+            DatabaseManager.closeResources(conn, pstmt, rs);
+        }
+    }
+    
+    private static User.UserRole parseRole(String role) {
+        if (role != null) {
+            for (User.UserRole candidate : User.UserRole.values()) {
+                if (candidate.name().equalsIgnoreCase(role.trim())) {
+                    return candidate;
+                }
+            }
+        }
+        return User.UserRole.USER;
+    }
+    
+    /**
+     * Seconds until a locked-out username may try to log in again, or 0 if it is not locked out
+     */
+    public long getLockoutRemainingSeconds(String username) {
+        long millis = loginThrottle.lockedFor(InputValidator.sanitizeInput(username));
+        return (millis + 999) / 1000;
+    }
+    
+    private void recordFailure(String username) {
+        if (loginThrottle.recordFailure(username)) {
+            AppLogger.logSecurityViolation(username, "ACCOUNT_LOCKED", 
+                String.format("Locked for %d seconds after %d failed attempts", 
+                              AppConstants.System.LOCKOUT_DURATION, AppConstants.System.MAX_LOGIN_ATTEMPTS));
+        }
     }
     
     /**
@@ -162,7 +314,7 @@ public class UserService {
             
             // Hash password
             String salt = PasswordSecurity.generateSalt();
-            String passwordHash = PasswordSecurity.hashPassword(password, salt);
+            String passwordHash = PasswordSecurity.createHash(password, salt);
             
             // Insert new user
             String query = "INSERT INTO " + AppConstants.Database.TABLE_USER + 
@@ -180,6 +332,7 @@ public class UserService {
             pstmt.setTimestamp(8, java.sql.Timestamp.valueOf(LocalDateTime.now()));
             
             int affectedRows = pstmt.executeUpdate();
+            userCache.invalidate(username);
             
             if (affectedRows > 0) {
                 // Get generated user ID
@@ -212,26 +365,44 @@ public class UserService {
     }
     
     /**
-     * Update user's last login time
+     * Write pending last-login times now instead of waiting for the background flush
      */
-    private void updateLastLogin(int userId) {
+    public void flushLastLogins() {
+        lastLoginWriter.flush();
+    }
+    
+    /**
+     * Store a hash of the password at the current cost after a successful login
+     */
+    private void rehashPassword(int userId, String password) {
         Connection conn = null;
         PreparedStatement pstmt = null;
         
         try {
             conn = DatabaseManager.getInstance().getConnection();
             
+            String salt = PasswordSecurity.generateSalt();
+            String passwordHash = PasswordSecurity.createHash(password, salt);
+            
             String query = "UPDATE " + AppConstants.Database.TABLE_USER + 
-                          " SET last_login = ? WHERE user_id = ?";
+                          " SET password_hash = ?, salt = ?, updated_at = ? WHERE user_id = ?";
             
             pstmt = conn.prepareStatement(query);
-            pstmt.setTimestamp(1, java.sql.Timestamp.valueOf(LocalDateTime.now()));
-            pstmt.setInt(2, userId);
+            pstmt.setString(1, passwordHash);
+            pstmt.setString(2, salt);
+            pstmt.setTimestamp(3, java.sql.Timestamp.valueOf(LocalDateTime.now()));
+            pstmt.setInt(4, userId);
             
-            pstmt.executeUpdate();
+            int affectedRows = pstmt.executeUpdate();
+            userCache.invalidate(userId);
+            if (affectedRows > 0) {
+                AppLogger.logSecurityEvent("PASSWORD_REHASH", "USER_ID_" + userId, 
+                                         "Password hash upgraded to " + PasswordSecurity.getIterations() + " iterations");
+            }
             
         } catch (SQLException e) {
-            AppLogger.logDatabaseError("updateLastLogin", AppConstants.Database.TABLE_USER, e);
+            // The old hash still works; try again on the next login
+            AppLogger.logDatabaseError("rehashPassword", AppConstants.Database.TABLE_USER, e);
         } finally {
             DatabaseManager.closeResources(conn, pstmt, null);
         }
@@ -315,7 +486,7 @@ public class UserService {
             
             // Generate new salt and hash
             String salt = PasswordSecurity.generateSalt();
-            String passwordHash = PasswordSecurity.hashPassword(newPassword, salt);
+            String passwordHash = PasswordSecurity.createHash(newPassword, salt);
             
             String query = "UPDATE " + AppConstants.Database.TABLE_USER + 
                           " SET password_hash = ?, salt = ?, updated_at = ? WHERE user_id = ?";
@@ -327,6 +498,7 @@ public class UserService {
             pstmt.setInt(4, userId);
             
             int affectedRows = pstmt.executeUpdate();
+            userCache.invalidate(userId);
             
             if (affectedRows > 0) {
                 AppLogger.logUserAction("USER_ID_" + userId, AppConstants.Actions.UPDATE, "Password", 
@@ -344,9 +516,10 @@ public class UserService {
     }
     
     /**
-     * Log user logout
+     * Log user logout and write out pending last-login times without waiting for the next flush
      */
     public void logout(String username) {
+        lastLoginWriter.flushSoon();
         AppLogger.logLogout(username);
         AppLogger.logUserAction(username, AppConstants.Actions.LOGOUT, "User logged out");
     }
@@ -30,6 +30,11 @@ public final class AppConstants {
         public static final int CONNECTION_TIMEOUT = 10000; // 10 seconds
         public static final int MAX_POOL_SIZE = 20;
         public static final int MIN_POOL_SIZE = 5;
+        public static final int IDLE_TIMEOUT = 300000; // 5 minutes
+        public static final int STATEMENT_CACHE_SIZE = 64; // per connection
+        public static final int MAX_PAGE_SIZE = 500; // rows per keyset page
+        public static final int STREAM_FETCH_SIZE = 1000; // rows per fetch when streaming from non-MySQL databases
+        public static final int IMPORT_BATCH_SIZE = 1000; // rows per insert batch and commit in bulk imports
         
         // Table Names
         public static final String TABLE_USER = "user";
@@ -39,6 +44,20 @@ public final class AppConstants {
         public static final String TABLE_RETURN = "pengembalian";
     }
     
+    // Logging Configuration
+    public static final class Logging {
+        public static final String CONFIG_FILE = "/config/logging.properties";
+        public static final int ASYNC_BUFFER_SIZE = 8192; // records, rounded up to a power of two
+        public static final int ASYNC_BATCH_SIZE = 256;
+        public static final long SHUTDOWN_TIMEOUT_MS = 5000;
+    }
+    
+    // Cache Configuration
+    public static final class Cache {
+        public static final long CATALOG_TTL_SECONDS = 300; // 5 minutes
+        public static final long USER_TTL_SECONDS = 60; // unused user rows are evicted after this
+    }
+    
     // UI Configuration
     public static final class UI {
         public static final String LOGO_PATH = "/Gambar/logo.png";
@@ -77,6 +96,7 @@ public final class AppConstants {
         public static final int MAX_RENTAL_QUANTITY = 10;
         public static final BigDecimal DAILY_LATE_FEE = new BigDecimal("5000"); // IDR 5,000 per day
         public static final BigDecimal MIN_RENTAL_AMOUNT = new BigDecimal("50000"); // IDR 50,000
+        public static final int AVAILABILITY_HORIZON_DAYS = 366; // days ahead tracked by the availability calendar
         
         // Customer Rules
         public static final int MIN_CUSTOMER_NAME_LENGTH = 2;
@@ -133,6 +153,7 @@ public final class AppConstants {
         public static final String INVALID_PASSWORD = "Password harus minimal 8 karakter dengan kombinasi huruf besar, kecil, angka, dan simbol";
         public static final String PASSWORD_MISMATCH = "Password tidak sama";
         public static final String WEAK_PASSWORD = "Password terlalu lemah";
+        public static final String ACCOUNT_LOCKED = "Terlalu banyak percobaan login. Coba lagi dalam %d menit";
         
         // Database Errors
         public static final String DB_CONNECTION_FAILED = "Gagal terhubung ke database";
@@ -180,6 +201,11 @@ public final class AppConstants {
         public static final int MAX_LOGIN_ATTEMPTS = 5;
         public static final int LOCKOUT_DURATION = 900; // 15 minutes in seconds
         public static final String ENCRYPTION_ALGORITHM = "SHA-256";
+        public static final int PASSWORD_HASH_ITERATIONS = 310000; // PBKDF2-HMAC-SHA256, see PasswordSecurity.main
+        public static final int PASSWORD_HASH_MIN_ITERATIONS = 100000;
+        public static final long PASSWORD_HASH_BUDGET_MS = 250; // p99 hash time the cost is calibrated to
+        public static final int PASSWORD_VERIFY_THREADS = 2;
+        public static final long LAST_LOGIN_FLUSH_DELAY_MS = 5000; // max delay before last_login is written
     }
     
     // Shipping Methods
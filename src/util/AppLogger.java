@@ -1,8 +1,14 @@
 package util;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
 import java.util.logging.*;
 
 /**
@@ -13,13 +19,17 @@ public class AppLogger {
     
     private static final String LOG_DIR = "logs";
     private static final String LOG_FILE_PATTERN = LOG_DIR + "/rental_cosplay_%g.log";
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
     private static Logger applicationLogger;
     private static Logger securityLogger;
     private static Logger databaseLogger;
     private static Logger userActionLogger;
     
+    // Null when async logging is disabled in logging.properties
+    private static AsyncLogWriter asyncWriter;
+    private static boolean shutDown;
+    private static final List<Runnable> shutdownTasks = new CopyOnWriteArrayList<>();
+    
     static {
         setupLoggers();
     }
@@ -35,21 +45,33 @@ public class AppLogger {
                 logDir.mkdirs();
             }
             
+            Properties config = loadConfig();
+            if (Boolean.parseBoolean(config.getProperty("log.async.enabled", "true"))) {
+                asyncWriter = new AsyncLogWriter(
+                    intProperty(config, "log.async.bufferSize", AppConstants.Logging.ASYNC_BUFFER_SIZE),
+                    intProperty(config, "log.async.batchSize", AppConstants.Logging.ASYNC_BATCH_SIZE),
+                    Level.parse(config.getProperty("log.async.dropLevel", "FINE").trim()));
+            }
+            // One hook for the whole exit sequence, so shutdown tasks run before the handlers close
+            Runtime.getRuntime().addShutdownHook(new Thread(AppLogger::shutdown, "log-shutdown"));
+            boolean blockSecurity = Boolean.parseBoolean(config.getProperty("log.async.blockSecurity", "true"));
+            Level level = Level.parse(config.getProperty("log.level", "ALL").trim());
+            
             // Application Logger
             applicationLogger = Logger.getLogger("RentalCosplay.Application");
-            setupLogger(applicationLogger, "logs/application_%g.log");
+            setupLogger(applicationLogger, "logs/application_%g.log", false, level);
             
-            // Security Logger
+            // Security Logger - audit trail, never dropped unless configured otherwise
             securityLogger = Logger.getLogger("RentalCosplay.Security");
-            setupLogger(securityLogger, "logs/security_%g.log");
+            setupLogger(securityLogger, "logs/security_%g.log", blockSecurity, level);
             
             // Database Logger
             databaseLogger = Logger.getLogger("RentalCosplay.Database");
-            setupLogger(databaseLogger, "logs/database_%g.log");
+            setupLogger(databaseLogger, "logs/database_%g.log", false, level);
             
             // User Action Logger
             userActionLogger = Logger.getLogger("RentalCosplay.UserAction");
-            setupLogger(userActionLogger, "logs/user_actions_%g.log");
+            setupLogger(userActionLogger, "logs/user_actions_%g.log", false, level);
             
         } catch (Exception e) {
             System.err.println("Failed to setup loggers: " + e.getMessage());
@@ -57,72 +79,123 @@ public class AppLogger {
         }
     }
     
+    private static Properties loadConfig() {
+        Properties config = new Properties();
+        try (InputStream input = AppLogger.class.getResourceAsStream(AppConstants.Logging.CONFIG_FILE)) {
+            if (input != null) {
+                config.load(input);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not load logging config, using defaults: " + e.getMessage());
+        }
+        return config;
+    }
+    
+    private static int intProperty(Properties config, String key, int defaultValue) {
+        String value = config.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+    
     /**
      * Setup individual logger with file handler
+     * @param blockWhenFull in async mode, wait for buffer space instead of dropping records
+     * @param level records below this level are rejected before any formatting work
      */
-    private static void setupLogger(Logger logger, String logFile) throws IOException {
-        logger.setLevel(Level.ALL);
+    private static void setupLogger(Logger logger, String logFile, boolean blockWhenFull, Level level) throws IOException {
+        logger.setLevel(level);
         logger.setUseParentHandlers(false);
         
         // File Handler
         FileHandler fileHandler = new FileHandler(logFile, 10 * 1024 * 1024, 5, true); // 10MB per file, 5 files
         fileHandler.setLevel(Level.ALL);
         fileHandler.setFormatter(new CustomFormatter());
-        logger.addHandler(fileHandler);
         
         // Console Handler for development
         ConsoleHandler consoleHandler = new ConsoleHandler();
         consoleHandler.setLevel(Level.INFO);
         consoleHandler.setFormatter(new SimpleFormatter());
-        logger.addHandler(consoleHandler);
+        
+        if (asyncWriter != null) {
+            logger.addHandler(asyncWriter.handlerFor(blockWhenFull, fileHandler, consoleHandler));
+        } else {
+            logger.addHandler(fileHandler);
+            logger.addHandler(consoleHandler);
+        }
     }
     
     // Application Logging Methods
     public static void logInfo(String message) {
-        applicationLogger.info(message);
+        log(applicationLogger, Level.INFO, "logInfo", null, message, (Object[]) null);
     }
     
     public static void logInfo(String message, Object... params) {
-        applicationLogger.info(String.format(message, params));
+        log(applicationLogger, Level.INFO, "logInfo", null, message, params);
+    }
+    
+    public static void logInfo(Supplier<String> message) {
+        log(applicationLogger, Level.INFO, "logInfo", null, message);
     }
     
     public static void logWarning(String message) {
-        applicationLogger.warning(message);
+        log(applicationLogger, Level.WARNING, "logWarning", null, message, (Object[]) null);
     }
     
     public static void logWarning(String message, Object... params) {
-        applicationLogger.warning(String.format(message, params));
+        log(applicationLogger, Level.WARNING, "logWarning", null, message, params);
+    }
+    
+    public static void logWarning(Supplier<String> message) {
+        log(applicationLogger, Level.WARNING, "logWarning", null, message);
     }
     
     public static void logError(String message) {
-        applicationLogger.severe(message);
+        log(applicationLogger, Level.SEVERE, "logError", null, message, (Object[]) null);
     }
     
     public static void logError(String message, Throwable throwable) {
-        applicationLogger.log(Level.SEVERE, message, throwable);
+        log(applicationLogger, Level.SEVERE, "logError", throwable, message, (Object[]) null);
     }
     
     public static void logError(String message, Throwable throwable, Object... params) {
-        applicationLogger.log(Level.SEVERE, String.format(message, params), throwable);
+        log(applicationLogger, Level.SEVERE, "logError", throwable, message, params);
     }
     
     public static void logDebug(String message) {
-        applicationLogger.fine(message);
+        log(applicationLogger, Level.FINE, "logDebug", null, message, (Object[]) null);
     }
     
     public static void logDebug(String message, Object... params) {
-        applicationLogger.fine(String.format(message, params));
+        log(applicationLogger, Level.FINE, "logDebug", null, message, params);
+    }
+    
+    public static void logDebug(Supplier<String> message) {
+        log(applicationLogger, Level.FINE, "logDebug", null, message);
+    }
+    
+    /**
+     * Whether debug records are logged at all; guard expensive argument preparation with this
+     */
+    public static boolean isDebugEnabled() {
+        return applicationLogger.isLoggable(Level.FINE);
     }
     
     // Security Logging Methods
     public static void logSecurityEvent(String event, String username, String details) {
-        String message = String.format("[%s] User: %s - %s", event, username != null ? username : "UNKNOWN", details);
-        securityLogger.info(message);
+        log(securityLogger, Level.INFO, "logSecurityEvent", null, "[%s] User: %s - %s", 
+            event, username != null ? username : "UNKNOWN", details);
     }
     
     public static void logLoginAttempt(String username, boolean successful, String ipAddress) {
-        String status = successful ? "SUCCESS" : "FAILED";
-        logSecurityEvent("LOGIN_ATTEMPT", username, String.format("Status: %s, IP: %s", status, ipAddress));
+        log(securityLogger, Level.INFO, "logSecurityEvent", null, "[%s] User: %s - Status: %s, IP: %s", 
+            "LOGIN_ATTEMPT", username != null ? username : "UNKNOWN", successful ? "SUCCESS" : "FAILED", ipAddress);
     }
     
     public static void logLogout(String username) {
@@ -130,62 +203,51 @@ public class AppLogger {
     }
     
     public static void logSecurityViolation(String username, String violation, String details) {
-        String message = String.format("[SECURITY_VIOLATION] User: %s - %s: %s", 
-                                      username != null ? username : "UNKNOWN", violation, details);
-        securityLogger.warning(message);
+        log(securityLogger, Level.WARNING, "logSecurityViolation", null, "[SECURITY_VIOLATION] User: %s - %s: %s", 
+            username != null ? username : "UNKNOWN", violation, details);
     }
     
     // Database Logging Methods
     public static void logDatabaseOperation(String operation, String table, boolean successful) {
-        String status = successful ? "SUCCESS" : "FAILED";
-        String message = String.format("DB Operation: %s on %s - Status: %s", operation, table, status);
-        databaseLogger.info(message);
+        log(databaseLogger, Level.INFO, "logDatabaseOperation", null, "DB Operation: %s on %s - Status: %s", 
+            operation, table, successful ? "SUCCESS" : "FAILED");
     }
     
     public static void logDatabaseError(String operation, String table, Throwable error) {
-        String message = String.format("DB Error during %s on %s", operation, table);
-        databaseLogger.log(Level.SEVERE, message, error);
+        log(databaseLogger, Level.SEVERE, "logDatabaseError", error, "DB Error during %s on %s", operation, table);
     }
     
     public static void logDatabaseConnection(boolean successful, String details) {
-        String status = successful ? "SUCCESS" : "FAILED";
-        String message = String.format("DB Connection: %s - %s", status, details);
-        if (successful) {
-            databaseLogger.info(message);
-        } else {
-            databaseLogger.warning(message);
-        }
+        log(databaseLogger, successful ? Level.INFO : Level.WARNING, "logDatabaseConnection", null, 
+            "DB Connection: %s - %s", successful ? "SUCCESS" : "FAILED", details);
     }
     
     // User Action Logging Methods
     public static void logUserAction(String username, String action, String entityType, String entityId, String details) {
-        String message = String.format("User: %s - Action: %s on %s[%s] - %s", 
-                                      username, action, entityType, entityId, details);
-        userActionLogger.info(message);
+        log(userActionLogger, Level.INFO, "logUserAction", null, "User: %s - Action: %s on %s[%s] - %s", 
+            username, action, entityType, entityId, details);
     }
     
     public static void logUserAction(String username, String action, String details) {
-        String message = String.format("User: %s - Action: %s - %s", username, action, details);
-        userActionLogger.info(message);
+        log(userActionLogger, Level.INFO, "logUserAction", null, "User: %s - Action: %s - %s", 
+            username, action, details);
     }
     
     // Business Logic Logging
     public static void logBusinessEvent(String event, String details) {
-        String message = String.format("Business Event: %s - %s", event, details);
-        applicationLogger.info(message);
+        log(applicationLogger, Level.INFO, "logBusinessEvent", null, "Business Event: %s - %s", event, details);
     }
     
     public static void logPerformance(String operation, long durationMs) {
         if (durationMs > 1000) { // Log slow operations (>1 second)
-            String message = String.format("Performance: %s took %d ms", operation, durationMs);
-            applicationLogger.warning(message);
+            log(applicationLogger, Level.WARNING, "logPerformance", null, "Performance: %s took %d ms", 
+                operation, durationMs);
         }
     }
     
     // System Events
     public static void logSystemEvent(String event, String details) {
-        String message = String.format("System Event: %s - %s", event, details);
-        applicationLogger.info(message);
+        log(applicationLogger, Level.INFO, "logSystemEvent", null, "System Event: %s - %s", event, details);
     }
     
     public static void logApplicationStart() {
@@ -197,17 +259,129 @@ public class AppLogger {
     }
     
     /**
-     * Custom formatter for log messages
+     * Hand a record to the logger without formatting it. The level check happens
+     * first, and the message is only built when a handler asks for it, so
+     * rejected or dropped records cost no formatting at all. The source method
+     * is set explicitly, which also spares the stack walk of caller inference.
+     * @param params format arguments, or null when message is literal text
+     */
+    private static void log(Logger logger, Level level, String sourceMethod, Throwable thrown, 
+                            String message, Object... params) {
+        if (!logger.isLoggable(level)) {
+            return;
+        }
+        publish(logger, new LazyLogRecord(level, message, params, null), sourceMethod, thrown);
+    }
+    
+    private static void log(Logger logger, Level level, String sourceMethod, Throwable thrown, 
+                            Supplier<String> message) {
+        if (!logger.isLoggable(level)) {
+            return;
+        }
+        publish(logger, new LazyLogRecord(level, null, null, message), sourceMethod, thrown);
+    }
+    
+    private static void publish(Logger logger, LogRecord record, String sourceMethod, Throwable thrown) {
+        record.setLoggerName(logger.getName());
+        record.setSourceClassName(AppLogger.class.getName());
+        record.setSourceMethodName(sourceMethod);
+        record.setThrown(thrown);
+        logger.log(record);
+    }
+    
+    /**
+     * Log record whose text is produced on first getMessage() call, i.e. by the
+     * handler's formatter (on the async writer thread when async logging is on).
+     * Arguments are captured by reference, so callers should pass immutable values.
+     */
+    private static final class LazyLogRecord extends LogRecord {
+        private static final long serialVersionUID = 1L;
+        
+        private transient Object[] args;
+        private transient Supplier<String> supplier;
+        private String formatted;
+        
+        LazyLogRecord(Level level, String message, Object[] args, Supplier<String> supplier) {
+            super(level, message);
+            this.args = args;
+            this.supplier = supplier;
+        }
+        
+        @Override
+        public String getMessage() {
+            if (formatted == null) {
+                String text;
+                try {
+                    if (supplier != null) {
+                        text = supplier.get();
+                    } else if (args != null) {
+                        text = String.format(super.getMessage(), args);
+                    } else {
+                        text = super.getMessage();
+                    }
+                } catch (RuntimeException e) {
+                    // A bad format string must not kill the writer thread
+                    text = super.getMessage() + " [format error: " + e + "]";
+                }
+                formatted = text;
+                args = null;
+                supplier = null;
+            }
+            return formatted;
+        }
+    }
+    
+    /**
+     * Custom formatter for log messages. Uses the record's own timestamp (not the
+     * time it was written) and renders the date part at most once per second.
+     * One instance per handler; handlers format one record at a time.
      */
     private static class CustomFormatter extends Formatter {
+        private final StringBuilder line = new StringBuilder(256);
+        private final char[] timestamp = new char[19];
+        private long cachedSecond = Long.MIN_VALUE;
+        
         @Override
         public String format(LogRecord record) {
-            return String.format("%s [%s] %s.%s: %s%n",
-                    LocalDateTime.now().format(DATE_FORMATTER),
-                    record.getLevel(),
-                    record.getLoggerName(),
-                    record.getSourceMethodName(),
-                    record.getMessage());
+            long second = Math.floorDiv(record.getMillis(), 1000);
+            if (second != cachedSecond) {
+                renderTimestamp(second);
+                cachedSecond = second;
+            }
+            
+            line.setLength(0);
+            line.append(timestamp)
+                .append(" [").append(record.getLevel().getName()).append("] ")
+                .append(record.getLoggerName()).append('.')
+                .append(record.getSourceMethodName()).append(": ")
+                .append(record.getMessage())
+                .append(System.lineSeparator());
+            return line.toString();
+        }
+        
+        /**
+         * Write yyyy-MM-dd HH:mm:ss for the given epoch second in the system time zone
+         */
+        private void renderTimestamp(long epochSecond) {
+            LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault());
+            putDigits(0, time.getYear(), 4);
+            timestamp[4] = '-';
+            putDigits(5, time.getMonthValue(), 2);
+            timestamp[7] = '-';
+            putDigits(8, time.getDayOfMonth(), 2);
+            timestamp[10] = ' ';
+            putDigits(11, time.getHour(), 2);
+            timestamp[13] = ':';
+            putDigits(14, time.getMinute(), 2);
+            timestamp[16] = ':';
+            putDigits(17, time.getSecond(), 2);
+        }
+        
+        private void putDigits(int offset, int value, int width) {
+            for (int i = offset + width - 1; i >= offset; i--) {
+                timestamp[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
         }
     }
     
@@ -219,9 +393,46 @@ public class AppLogger {
     }
     
     /**
-     * Shutdown all loggers properly
+     * Async writer counters for diagnostics
      */
-    public static void shutdown() {
+    public static String getAsyncStatus() {
+        if (asyncWriter == null) {
+            return "Async logging disabled";
+        }
+        return String.format("written=%d, dropped=%d, queued=%d",
+                             asyncWriter.getWrittenCount(), asyncWriter.getDroppedCount(), asyncWriter.getQueuedCount());
+    }
+    
+    /**
+     * Run a task at the start of shutdown, while logging still works, e.g. to write out
+     * data held in memory. Tasks run in the order they were added, on the shutting-down thread.
+     */
+    public static void addShutdownTask(Runnable task) {
+        shutdownTasks.add(task);
+    }
+    
+    /**
+     * Shutdown all loggers properly, writing out anything still buffered
+     */
+    public static synchronized void shutdown() {
+        if (shutDown) {
+            return;
+        }
+        shutDown = true;
+        for (Runnable task : shutdownTasks) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logError("Shutdown task failed", e);
+            }
+        }
+        logApplicationStop();
+        
+        if (asyncWriter != null) {
+            asyncWriter.shutdown(AppConstants.Logging.SHUTDOWN_TIMEOUT_MS);
+            return;
+        }
+        
         Handler[] handlers = applicationLogger.getHandlers();
         for (Handler handler : handlers) {
             handler.close();
@@ -241,7 +452,5 @@ public class AppLogger {
         for (Handler handler : handlers) {
             handler.close();
         }
-        
-        logApplicationStop();
     }
 }
\ No newline at end of file
@@ -0,0 +1,308 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Moves log output off the calling thread.
+ * Producers put records into a bounded lock-free ring buffer; one writer
+ * thread drains it in batches and hands each record to the real handlers of
+ * the logger it came from. When the buffer is under pressure, records at or
+ * below the drop level are discarded first; records of blocking loggers wait
+ * for space instead of being lost.
+ */
+final class AsyncLogWriter {
+
+    // Low-level records start being dropped once the buffer is this full, leaving room for the rest
+    private static final int DROP_WATERMARK_PERCENT = 75;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final RingBuffer buffer;
+    private final int batchSize;
+    private final int dropLevel;
+    private final int dropWatermark;
+    private final Thread writer;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    // Delegates of every front handler, in creation order; the first set receives drop notices
+    private final List<Handler[]> handlers = new ArrayList<>();
+    // Only touched by the writer thread
+    private long reportedDrops;
+
+    private volatile boolean running = true;
+    private volatile boolean writerParked;
+
+    AsyncLogWriter(int capacity, int batchSize, Level dropLevel) {
+        this.buffer = new RingBuffer(capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.dropLevel = dropLevel.intValue();
+        this.dropWatermark = buffer.capacity() * DROP_WATERMARK_PERCENT / 100;
+        this.writer = new Thread(this::run, "async-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Front handler for one logger; publishes to the given handlers on the writer thread
+     * @param blockWhenFull wait for space rather than drop when the buffer is full (e.g. security audit)
+     */
+    Handler handlerFor(boolean blockWhenFull, Handler... delegates) {
+        return new FrontHandler(delegates.clone(), blockWhenFull);
+    }
+
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    long getWrittenCount() {
+        return written.get();
+    }
+
+    int getQueuedCount() {
+        return buffer.size();
+    }
+
+    /**
+     * Stop accepting records, write out everything still buffered and close the handlers
+     */
+    void shutdown(long timeoutMillis) {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            // The writer drains the buffer and closes the handlers before it exits
+            writer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueue(Entry entry, boolean blockWhenFull) {
+        if (!running) {
+            // Late records (e.g. from shutdown hooks) are written synchronously
+            entry.publish();
+            return;
+        }
+
+        int level = entry.record.getLevel().intValue();
+        if (level <= dropLevel && buffer.size() >= dropWatermark) {
+            dropped.incrementAndGet();
+            return;
+        }
+
+        while (!buffer.offer(entry)) {
+            if (!blockWhenFull || !running) {
+                dropped.incrementAndGet();
+                return;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            if (drain(batchSize) == 0) {
+                writerParked = true;
+                // Re-check after publishing the flag so a producer's unpark cannot be missed
+                if (buffer.size() == 0 && running) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                writerParked = false;
+            }
+        }
+        drain(Integer.MAX_VALUE);
+        reportDropped();
+        closeHandlers();
+    }
+
+    /**
+     * Write up to max records, then flush each handler that was written to once
+     * @return number of records written
+     */
+    private int drain(int max) {
+        Map<Handler, Boolean> touched = new IdentityHashMap<>();
+        int count = 0;
+        Entry entry;
+        while (count < max && (entry = buffer.poll()) != null) {
+            entry.publish();
+            for (Handler handler : entry.handlers) {
+                touched.put(handler, Boolean.TRUE);
+            }
+            count++;
+        }
+        for (Handler handler : touched.keySet()) {
+            handler.flush();
+        }
+        if (count > 0) {
+            written.addAndGet(count);
+            reportDropped();
+        }
+        return count;
+    }
+
+    /**
+     * Note lost records in the log itself, at most once per drain
+     */
+    private void reportDropped() {
+        long total = dropped.get();
+        if (total == reportedDrops) {
+            return;
+        }
+        Handler[] target;
+        synchronized (handlers) {
+            if (handlers.isEmpty()) {
+                return;
+            }
+            target = handlers.get(0);
+        }
+        LogRecord notice = new LogRecord(Level.WARNING,
+            String.format("Async logger dropped %d records (buffer full)", total - reportedDrops));
+        notice.setLoggerName("RentalCosplay.Logging");
+        notice.setSourceMethodName("drain");
+        for (Handler handler : target) {
+            handler.publish(notice);
+        }
+        reportedDrops = total;
+    }
+
+    private void closeHandlers() {
+        synchronized (handlers) {
+            for (Handler[] set : handlers) {
+                for (Handler handler : set) {
+                    handler.close();
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        final LogRecord record;
+        final Handler[] handlers;
+
+        Entry(LogRecord record, Handler[] handlers) {
+            this.record = record;
+            this.handlers = handlers;
+        }
+
+        void publish() {
+            for (Handler handler : handlers) {
+                handler.publish(record);
+            }
+        }
+    }
+
+    private final class FrontHandler extends Handler {
+        private final Handler[] delegates;
+        private final boolean blockWhenFull;
+
+        FrontHandler(Handler[] delegates, boolean blockWhenFull) {
+            this.delegates = delegates;
+            this.blockWhenFull = blockWhenFull;
+            synchronized (handlers) {
+                handlers.add(delegates);
+            }
+        }
+
+        @Override
+        public void publish(LogRecord record) {
+            if (!isLoggable(record)) {
+                return;
+            }
+            // Caller inference walks the current stack, so it must happen before the hand-off
+            record.getSourceClassName();
+            enqueue(new Entry(record, delegates), blockWhenFull);
+        }
+
+        @Override
+        public void flush() {
+            // The writer flushes after every batch
+        }
+
+        @Override
+        public void close() {
+            // Delegates are closed by AsyncLogWriter.shutdown once the buffer is drained
+        }
+    }
+
+    /**
+     * Bounded multi-producer, single-consumer ring buffer. Each slot carries a
+     * sequence number that tells producers and the consumer whose turn it is,
+     * so neither side takes a lock.
+     */
+    private static final class RingBuffer {
+        private final int mask;
+        private final AtomicLongArray sequences;
+        private final AtomicReferenceArray<Entry> slots;
+        private final AtomicLong tail = new AtomicLong();
+        private volatile long head;
+
+        RingBuffer(int requestedCapacity) {
+            int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+            this.mask = capacity - 1;
+            this.sequences = new AtomicLongArray(capacity);
+            this.slots = new AtomicReferenceArray<>(capacity);
+            for (int i = 0; i < capacity; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+
+        boolean offer(Entry entry) {
+            long pos = tail.get();
+            while (true) {
+                int index = (int) (pos & mask);
+                long diff = sequences.get(index) - pos;
+                if (diff == 0) {
+                    if (tail.compareAndSet(pos, pos + 1)) {
+                        slots.set(index, entry);
+                        sequences.set(index, pos + 1);
+                        return true;
+                    }
+                    pos = tail.get();
+                } else if (diff < 0) {
+                    return false;
+                } else {
+                    pos = tail.get();
+                }
+            }
+        }
+
+        /**
+         * Only called by the single consumer
+         */
+        Entry poll() {
+            long pos = head;
+            int index = (int) (pos & mask);
+            if (sequences.get(index) != pos + 1) {
+                return null;
+            }
+            Entry entry = slots.get(index);
+            slots.set(index, null);
+            sequences.set(index, pos + mask + 1);
+            head = pos + 1;
+            return entry;
+        }
+
+        int size() {
+            return (int) Math.max(0, tail.get() - head);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package util;
+
+import javax.swing.SwingUtilities;
+import java.awt.Component;
+import java.awt.Cursor;
+import java.awt.Window;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs screen data loads on a worker thread and hands the result back on the EDT.
+ * Loads are tracked per window and key: starting a load cancels the previous
+ * one for the same key, and cancelAll drops everything a window still has in
+ * flight when the user navigates away. The window shows a wait cursor while
+ * any of its loads are running.
+ */
+public final class BackgroundLoader {
+
+    private static final int WORKER_THREADS = 3;
+    private static BackgroundLoader instance;
+
+    private final ExecutorService executor;
+    // Only touched on the EDT
+    private final Map<Window, Map<String, Load>> loads = new WeakHashMap<>();
+
+    private BackgroundLoader() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(WORKER_THREADS, r -> {
+            Thread t = new Thread(r, "ui-loader-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static synchronized BackgroundLoader getInstance() {
+        if (instance == null) {
+            instance = new BackgroundLoader();
+        }
+        return instance;
+    }
+
+    /**
+     * Fetch data off the EDT and pass it to onLoaded on the EDT.
+     * Must be called on the EDT.
+     * @param owner component whose window shows progress and owns the load
+     * @param key identifies the load within the window; a newer load with the same key replaces this one
+     * @param task the blocking fetch, run on a worker thread
+     * @param onLoaded receives the result on the EDT, unless the load was cancelled or superseded
+     */
+    public <T> void load(Component owner, String key, Callable<T> task, Consumer<? super T> onLoaded) {
+        Window window = owner instanceof Window ? (Window) owner : SwingUtilities.getWindowAncestor(owner);
+        Map<String, Load> windowLoads = loads.computeIfAbsent(window, w -> new HashMap<>());
+
+        Load previous = windowLoads.remove(key);
+        if (previous != null) {
+            previous.cancel();
+        }
+
+        Load load = new Load();
+        windowLoads.put(key, load);
+        updateCursor(window, windowLoads);
+
+        load.future = executor.submit(() -> {
+            T result;
+            try {
+                result = task.call();
+            } catch (Exception e) {
+                if (!load.cancelled) {
+                    AppLogger.logError("Background load '%s' failed", e, key);
+                }
+                SwingUtilities.invokeLater(() -> finish(window, key, load));
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (finish(window, key, load)) {
+                    onLoaded.accept(result);
+                }
+            });
+        });
+    }
+
+    /**
+     * Cancel every load still running for the owner's window. Call when the window is disposed.
+     */
+    public void cancelAll(Component owner) {
+        Window window = owner instanceof Window ? (Window) owner : SwingUtilities.getWindowAncestor(owner);
+        Map<String, Load> windowLoads = loads.remove(window);
+        if (windowLoads != null) {
+            for (Load load : windowLoads.values()) {
+                load.cancel();
+            }
+            updateCursor(window, null);
+        }
+    }
+
+    /**
+     * Whether the window still has loads in flight
+     */
+    public boolean isLoading(Component owner) {
+        Window window = owner instanceof Window ? (Window) owner : SwingUtilities.getWindowAncestor(owner);
+        Map<String, Load> windowLoads = loads.get(window);
+        return windowLoads != null && !windowLoads.isEmpty();
+    }
+
+    /**
+     * Stop the worker threads. Call on application exit.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Drop a completed load from the registry
+     * @return true if the load was still current and its result should be published
+     */
+    private boolean finish(Window window, String key, Load load) {
+        Map<String, Load> windowLoads = loads.get(window);
+        if (windowLoads == null || windowLoads.get(key) != load) {
+            return false;
+        }
+        windowLoads.remove(key);
+        updateCursor(window, windowLoads);
+        return !load.cancelled;
+    }
+
+    private static void updateCursor(Window window, Map<String, Load> windowLoads) {
+        if (window == null) {
+            return;
+        }
+        boolean busy = windowLoads != null && !windowLoads.isEmpty();
+        window.setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+    }
+
+    private static final class Load {
+        volatile Future<?> future;
+        volatile boolean cancelled;
+
+        void cancel() {
+            cancelled = true;
+            Future<?> f = future;
+            if (f != null) {
+                // Interrupting a JDBC call can leave the connection unusable; let it finish and drop the result
+                f.cancel(false);
+            }
+        }
+    }
+}
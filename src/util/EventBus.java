@@ -0,0 +1,133 @@
+package util;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * In-process publish/subscribe for change events.
+ * Publishing never blocks: events are queued and delivered to subscribers on
+ * the EDT. Everything published before the EDT gets to the queue is delivered
+ * in one pass, and within that pass an event that supersedes an earlier one
+ * (see Coalescing) replaces it, so a burst of changes to the same row costs
+ * one table update.
+ */
+public final class EventBus {
+
+    /**
+     * Implemented by events that make an earlier event with the same key redundant
+     */
+    public interface Coalescing {
+        /**
+         * Events with equal keys are candidates for merging
+         */
+        Object coalesceKey();
+
+        /**
+         * Whether this event carries everything the earlier one with the same key did
+         */
+        default boolean supersedes(Object earlier) {
+            return true;
+        }
+    }
+
+    /**
+     * Handle returned by subscribe; cancel it when the subscriber goes away
+     */
+    public interface Subscription {
+        void cancel();
+    }
+
+    private static EventBus instance;
+
+    private final List<Listener<?>> listeners = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<Object> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    private EventBus() {}
+
+    public static synchronized EventBus getInstance() {
+        if (instance == null) {
+            instance = new EventBus();
+        }
+        return instance;
+    }
+
+    /**
+     * Receive every published event of the given type (or a subtype) on the EDT
+     */
+    public <E> Subscription subscribe(Class<E> type, Consumer<? super E> handler) {
+        Listener<E> listener = new Listener<>(type, handler);
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    /**
+     * Queue an event for delivery. Safe to call from any thread; returns immediately.
+     */
+    public void publish(Object event) {
+        queue.add(event);
+        if (drainScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::drain);
+        }
+    }
+
+    private void drain() {
+        // Clear the flag first so an event published by a subscriber schedules another pass
+        drainScheduled.set(false);
+
+        List<Object> batch = new ArrayList<>();
+        Map<Object, Integer> positions = new HashMap<>();
+        Object event;
+        while ((event = queue.poll()) != null) {
+            if (event instanceof Coalescing) {
+                Coalescing coalescing = (Coalescing) event;
+                Object key = coalescing.coalesceKey();
+                Integer earlier = positions.get(key);
+                if (earlier != null && coalescing.supersedes(batch.get(earlier))) {
+                    batch.set(earlier, null);
+                }
+                positions.put(key, batch.size());
+            }
+            batch.add(event);
+        }
+
+        for (Object pending : batch) {
+            if (pending != null) {
+                deliver(pending);
+            }
+        }
+    }
+
+    private void deliver(Object event) {
+        for (Listener<?> listener : listeners) {
+            if (listener.type.isInstance(event)) {
+                try {
+                    listener.accept(event);
+                } catch (RuntimeException e) {
+                    AppLogger.logError("Event handler failed for %s", e, event.getClass().getSimpleName());
+                }
+            }
+        }
+    }
+
+    private static final class Listener<E> {
+        final Class<E> type;
+        final Consumer<? super E> handler;
+
+        Listener(Class<E> type, Consumer<? super E> handler) {
+            this.type = type;
+            this.handler = handler;
+        }
+
+        void accept(Object event) {
+            handler.accept(type.cast(event));
+        }
+    }
+}
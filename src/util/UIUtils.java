@@ -11,6 +11,9 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Locale;
+import java.util.Vector;
+import model.Costume;
+import model.Rental;
 
 /**
  * UI Utilities for common GUI operations
@@ -18,6 +21,7 @@ import java.util.Locale;
 public class UIUtils {
     
     private static final NumberFormat CURRENCY_FORMAT = NumberFormat.getCurrencyInstance(new Locale("id", "ID"));
+    private static final int COSTUME_STOCK_COLUMN = 4;
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern(AppConstants.System.DATETIME_FORMAT);
     
     /**
@@ -251,6 +255,100 @@ public class UIUtils {
         loadingDialog.setVisible(true);
     }
     
+    /**
+     * Build the costume table model shown by the Costume and SewaKostum screens
+     */
+    public static DefaultTableModel createCostumeTableModel(List<Costume> costumes) {
+        DefaultTableModel model = new DefaultTableModel(
+            new Object[] { "ID Kostum", "Nama Karakter", "Asal Karakter", "Ukuran", "Stok", "Harga" }, 0);
+        for (Costume costume : costumes) {
+            model.addRow(costumeRow(costume));
+        }
+        return model;
+    }
+    
+    /**
+     * Insert or replace a costume's row in a model built by createCostumeTableModel
+     */
+    public static void putCostumeRow(DefaultTableModel model, Costume costume) {
+        int row = findRowById(model, costume.getCostumeId());
+        if (row < 0) {
+            model.addRow(costumeRow(costume));
+        } else {
+            replaceRow(model, row, costumeRow(costume));
+        }
+    }
+    
+    /**
+     * Change only the stock column of a costume's row
+     * @return false if the costume has no row in the model
+     */
+    public static boolean setCostumeStock(DefaultTableModel model, int costumeId, int stock) {
+        int row = findRowById(model, costumeId);
+        if (row < 0) {
+            return false;
+        }
+        model.setValueAt(stock, row, COSTUME_STOCK_COLUMN);
+        return true;
+    }
+    
+    /**
+     * Remove the row whose first column holds the given ID, if there is one
+     */
+    public static void removeRowById(DefaultTableModel model, int id) {
+        int row = findRowById(model, id);
+        if (row >= 0) {
+            model.removeRow(row);
+        }
+    }
+    
+    /**
+     * Index of the row whose first column holds the given ID, or -1
+     */
+    public static int findRowById(DefaultTableModel model, int id) {
+        String key = String.valueOf(id);
+        for (int i = 0; i < model.getRowCount(); i++) {
+            if (key.equals(String.valueOf(model.getValueAt(i, 0)))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Overwrite a whole row with one change notification instead of one per cell
+     */
+    @SuppressWarnings("unchecked")
+    private static void replaceRow(DefaultTableModel model, int row, Object[] values) {
+        Vector<Object> cells = (Vector<Object>) model.getDataVector().get(row);
+        for (int i = 0; i < values.length && i < cells.size(); i++) {
+            cells.set(i, values[i]);
+        }
+        model.fireTableRowsUpdated(row, row);
+    }
+    
+    /**
+     * Row of the rental tables on the SewaKostum and Pengembalian screens
+     */
+    public static Object[] rentalRow(Rental rental) {
+        return new Object[] {
+            rental.getRentalId(), rental.getCostumeId(), rental.getCustomerName(), rental.getCostumeName(),
+            rental.getQuantity(), java.sql.Date.valueOf(rental.getRentalDate()), java.sql.Date.valueOf(rental.getReturnDate()),
+            rental.getTotalCost(), rental.getShippingMethod(), rental.getTrackingNumber()
+        };
+    }
+    
+    private static Object[] costumeRow(Costume costume) {
+        return new Object[] {
+            costume.getCostumeId(),
+            costume.getCharacterName(),
+            costume.getCharacterOrigin(),
+            costume.getSize() != null ? costume.getSize().getCode() : "",
+            costume.getStock(),
+            costume.getPrice() != null ? costume.getPrice().stripTrailingZeros().toPlainString() : "0"
+        };
+    }
+    
     /**
      * Validate required fields in a container
      */